@@ -0,0 +1,48 @@
+package connect;
+
+//------------------------------------------------------
+//
+// CLASS: BenchmarkPositions
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to build the
+//          boards that the benchmarks are run on. Each
+//          board is written as the columns played, from 1
+//          to 7, with Status.ONE moving first. None of
+//          them has four in a row, and on the mid-game and
+//          late-game boards neither player can win with
+//          their next token, so searching them is real
+//          work.
+//
+//------------------------------------------------------
+
+public class BenchmarkPositions
+{
+	public static final String EMPTY = ""; // no tokens
+	public static final String OPENING = "4"; // a single token in the middle column
+	public static final String MID_GAME = "13552771625412441174"; // 20 tokens
+	public static final String LATE_GAME = "343175726442113611533173574226"; // 30 tokens
+	public static final String NEAR_FULL = "5312776446344541745211223165231767735632"; // 40 tokens
+
+	// returns a new board with the given columns played on it
+	public static BoardArray play(String moves)
+	{
+		BoardArray board = new BoardArray();
+		Status token = Status.ONE;
+
+		for (int i = 0; i < moves.length(); i++)
+		{
+			board.dropToken(moves.charAt(i) - '1', token);
+			token = (token == Status.ONE) ? Status.TWO : Status.ONE;
+		}
+
+		return board;
+	}
+
+	// the token of the player to move after the given columns have been played
+	public static Status toMove(String moves)
+	{
+		return (moves.length() % 2 == 0) ? Status.ONE : Status.TWO;
+	}
+}
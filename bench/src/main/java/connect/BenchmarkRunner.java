@@ -0,0 +1,44 @@
+package connect;
+
+//------------------------------------------------------
+//
+// CLASS: BenchmarkRunner
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to run the JMH
+//          benchmarks with the usual JMH command line
+//          options, except that the results are written
+//          as JSON to target/jmh-result.json unless
+//          another format or file is asked for.
+//
+//------------------------------------------------------
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner
+{
+	public static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+	public static void main(String[] args) throws Exception
+	{
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+		if (!commandLine.getResultFormat().hasValue())
+		{
+			options.resultFormat(ResultFormatType.JSON);
+		}
+
+		if (!commandLine.getResult().hasValue())
+		{
+			options.result(DEFAULT_RESULT);
+		}
+
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,94 @@
+package connect;
+
+//------------------------------------------------------
+//
+// CLASS: BoardArrayBenchmark
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to time the
+//          basic operations of a BoardArray: reading a
+//          cell, dropping and removing a token (which
+//          replaced setCell and updateForNewToken),
+//          rebuilding the Status[][] board for the
+//          display, and checking for a win.
+//
+//------------------------------------------------------
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardArrayBenchmark
+{
+	@Param({ BenchmarkPositions.EMPTY, BenchmarkPositions.MID_GAME, BenchmarkPositions.NEAR_FULL })
+	public String moves;
+
+	private BoardArray board;
+	private int row; // the row of the cell that getCell reads
+	private int col; // the column that tokens are dropped into
+
+	@Setup
+	public void setUp()
+	{
+		this.board = BenchmarkPositions.play(this.moves);
+
+		// use the first column with room, and the cell at the bottom of it
+		for (this.col = 0; !this.board.canPlay(this.col); this.col++)
+		{
+		}
+
+		this.row = this.board.getHeight() - 1;
+	}
+
+	@Benchmark
+	public Status getCell()
+	{
+		return this.board.getCell(this.row, this.col);
+	}
+
+	@Benchmark
+	public int dropAndUndo()
+	{
+		int landed = this.board.dropToken(this.col, Status.ONE);
+
+		this.board.undoToken(this.col);
+
+		return landed;
+	}
+
+	// a drop marks the Status[][] board as stale, so every getBoard() here rebuilds it
+	@Benchmark
+	public Status[][] dropAndGetBoard()
+	{
+		this.board.dropToken(this.col, Status.ONE);
+
+		Status[][] cells = this.board.getBoard();
+
+		this.board.undoToken(this.col);
+
+		return cells;
+	}
+
+	@Benchmark
+	public boolean isWin()
+	{
+		return this.board.isWin(Status.ONE);
+	}
+}
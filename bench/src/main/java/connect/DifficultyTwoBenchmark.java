@@ -0,0 +1,70 @@
+package connect;
+
+//------------------------------------------------------
+//
+// CLASS: DifficultyTwoBenchmark
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to time
+//          DifficultyTwo's makeMove from end to end. Each
+//          invocation plays a whole game against a new
+//          DifficultyTwo, where the other player always
+//          takes the leftmost column with room, and
+//          returns the number of moves the AI made.
+//
+//------------------------------------------------------
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DifficultyTwoBenchmark
+{
+	@Benchmark
+	public int playGame()
+	{
+		DifficultyTwo ai = new DifficultyTwo();
+		BoardArray board = new BoardArray();
+		int moves = 0;
+		boolean over = false;
+
+		while (!over)
+		{
+			int col = 0;
+
+			while (!board.canPlay(col))
+			{
+				col++;
+			}
+
+			board.dropToken(col, Status.ONE);
+			over = board.isWin(Status.ONE) || board.isFull();
+
+			if (!over)
+			{
+				int aiCol = ai.makeMove(board.getPosition());
+
+				board.dropToken(aiCol, Status.TWO);
+				moves++;
+				over = board.isWin(Status.TWO) || board.isFull();
+			}
+		}
+
+		return moves;
+	}
+}
@@ -0,0 +1,58 @@
+package connect;
+
+//------------------------------------------------------
+//
+// CLASS: GameOverBenchmark
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to time
+//          GameLogic's check for the end of the game,
+//          after the last token of a board with one token,
+//          a mid-game board and a nearly full board.
+//
+//------------------------------------------------------
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameOverBenchmark
+{
+	@Param({ BenchmarkPositions.OPENING, BenchmarkPositions.MID_GAME, BenchmarkPositions.NEAR_FULL })
+	public String moves;
+
+	private BoardArray board;
+	private int row; // the cell of the last token played
+	private int col;
+
+	@Setup
+	public void setUp()
+	{
+		this.board = BenchmarkPositions.play(this.moves);
+		this.col = this.moves.charAt(this.moves.length() - 1) - '1';
+		this.row = this.board.getHeight() - this.board.getColumnHeight(this.col);
+	}
+
+	@Benchmark
+	public Status checkGameOver()
+	{
+		return GameLogic.checkGameOver(this.board, this.row, this.col);
+	}
+}
@@ -0,0 +1,79 @@
+package connect;
+
+//------------------------------------------------------
+//
+// CLASS: SearchBenchmark
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to time the
+//          negamax search at fixed depths on the mid-game
+//          board, with no time budget, so that the work
+//          done is the same on every run. The
+//          transposition table is emptied before each
+//          invocation, so that no search is helped by the
+//          one before it. Each depth is timed with both the
+//          CenterEvaluator and the WindowEvaluator.
+//
+//------------------------------------------------------
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark
+{
+	private static final int TABLE_SIZE_BITS = 16;
+
+	@Param({ "4", "6", "8" })
+	public int depth;
+
+	@Param({ "center", "window" })
+	public String evaluator;
+
+	private BoardArray midGame;
+	private TranspositionTable table;
+	private NegamaxSearch search;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		this.midGame = BenchmarkPositions.play(BenchmarkPositions.MID_GAME);
+		this.table = new TranspositionTable(TABLE_SIZE_BITS);
+		BoardEvaluator boardEvaluator = this.evaluator.equals("window")
+				? new WindowEvaluator(this.midGame.getObjective()) : new CenterEvaluator();
+
+		this.search = new NegamaxSearch(this.table, boardEvaluator, 0, new AtomicBoolean());
+	}
+
+	@Setup(Level.Invocation)
+	public void clearTable()
+	{
+		this.table.clear();
+	}
+
+	@Benchmark
+	public int negamax()
+	{
+		return this.search.search(this.midGame, BenchmarkPositions.toMove(BenchmarkPositions.MID_GAME), this.depth,
+				Long.MAX_VALUE, 0);
+	}
+}
@@ -0,0 +1,60 @@
+package connect;
+
+//------------------------------------------------------
+//
+// CLASS: SolverBenchmark
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to time
+//          PerfectSolver on the late-game board, which it
+//          searches to the end of the game. The solver
+//          is cleared before each invocation, so that no
+//          solve is helped by the one before it.
+//
+//------------------------------------------------------
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark
+{
+	private BoardArray lateGame;
+	private PerfectSolver solver;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		this.lateGame = BenchmarkPositions.play(BenchmarkPositions.LATE_GAME);
+		this.solver = new PerfectSolver();
+	}
+
+	@Setup(Level.Invocation)
+	public void clearSolver()
+	{
+		this.solver.clear();
+	}
+
+	@Benchmark
+	public int solve()
+	{
+		return this.solver.solve(this.lateGame);
+	}
+}
@@ -6,27 +6,175 @@
 // Author: William Coombs, 6852347
 //
 // REMARKS: The purpose of this class is to create and
-//          manage a 2D array that stores the game
-//          board. One board is created by each of the
-//          classes that implement the ConnectController
-//          and ConnectPlayer interfaces.
+//          manage the game board. One board is created
+//          by each of the classes that implement the
+//          ConnectController and ConnectPlayer
+//          interfaces.
+//
+//          The size of the board and the number of tokens
+//          in a line needed to win are chosen when the
+//          board is created, and are 7 by 6 with four in a
+//          row unless given.
+//
+//          The board is stored as a pair of bitboards,
+//          one per player. Each column takes HEIGHT + 1
+//          consecutive bits, starting at the bottom row,
+//          with the extra bit acting as a sentinel above
+//          the top row so that lines can never wrap from
+//          one column into the next. When every column
+//          fits in 64 bits, as it does for the usual
+//          board, each bitboard is a single long. Larger
+//          boards fall back to an array of longs per
+//          player, which works the same way, one word at
+//          a time. The number of tokens in each column
+//          is also kept, so that a dropped token can be
+//          placed directly in the cell it lands in. A
+//          Status[][] version of the board is only built
+//          when it is asked for. The columns played are
+//          also kept in order, so the last move can be
+//          found.
+//
+//          The AIs are not given the board itself, only a
+//          read-only Position view of it (see
+//          getPosition()), so there is one board per game
+//          that only its owner can change.
+//
+//          A Zobrist hash of the board is updated with
+//          every drop and undo, by XORing in a random key
+//          for the token and cell that changed, so that
+//          the AI can recognize boards it has already
+//          seen without comparing them cell by cell. The
+//          keys are the same for every board, so they are
+//          made once and shared.
+//
+//          A board and its mirror image (left to right)
+//          are worth the same to both players, so the hash
+//          and the single-word bitboards of the mirror
+//          image are updated alongside the board's own.
+//          The smaller of the two hashes (or position
+//          keys) is the canonical one, which both boards
+//          share, so the transposition tables and the
+//          opening book store each pair once. A move
+//          stored under a canonical key is stored as it
+//          would be played on the canonical board (see
+//          canonicalMove).
+//
+//          A board that gives the players a Position (the
+//          game's own board), or is asked for a winning
+//          column, keeps a ThreatIndex of the cells that
+//          would complete a line up to date with every drop
+//          and undo, so a winning (or blocking) column is
+//          found by intersecting it with the playable
+//          cells. The index is built by the board's owner
+//          when the first Position is made, so a player
+//          reading the board through it changes nothing. A
+//          WindowEvaluator has the index keep a running
+//          score of the board in the same way.
 //
 //------------------------------------------------------
 
+import java.util.Random;
+
 public class BoardArray
 {
-	private Status[][] board;
-	private final int WIDTH = 7;
-	private final int HEIGHT = 6;
-	private final int objective = 4;
+	// the size of the board and the line needed to win, when none are given
+	public static final int DEFAULT_WIDTH = 7;
+	public static final int DEFAULT_HEIGHT = 6;
+	public static final int DEFAULT_OBJECTIVE = 4;
+
+	private final int WIDTH;
+	private final int HEIGHT;
+	private final int objective;
+	private final int COLUMN_BITS; // the number of bits used by a column, including its sentinel bit
+	private final int WORDS; // the number of longs in each bitboard, where 1 means the single-word fast path
+	private static final long ZOBRIST_SEED = 2150; // a fixed seed, so that every board uses the same keys
+	private static long[][] zobristKeys = new long[2][0]; // the keys for ONE and TWO, grown for larger boards
+	private long bottomRow; // a bit at the bottom of every column, for single-word boards
+	private long playerOne; // the cells occupied by Status.ONE, for single-word boards
+	private long playerTwo; // the cells occupied by Status.TWO, for single-word boards
+	private long[] wordsOne; // the cells occupied by Status.ONE, for multi-word boards (otherwise null)
+	private long[] wordsTwo; // the cells occupied by Status.TWO, for multi-word boards (otherwise null)
+	private long[] line; // scratch space for isWin on multi-word boards
+	private long[] shifted; // scratch space for isWin on multi-word boards
+	private int[] heights; // the number of tokens in each column, which is also the next free cell from the bottom
+	private int moveCount; // the number of tokens on the board
+	private int[] moves; // the column of each token, in the order they were dropped
+	private long[] zobristOne; // the random key of each bit position for Status.ONE
+	private long[] zobristTwo; // the random key of each bit position for Status.TWO
+	private long hash; // the XOR of the keys of every token on the board
+	private long mirrorHash; // the hash of the board's mirror image
+	private long mirrorOne; // the mirror image of playerOne, for single-word boards
+	private long mirrorTwo; // the mirror image of playerTwo, for single-word boards
+	private Status[][] board; // the materialized view of the board, rebuilt only when it is stale (null until asked for)
+	private boolean boardStale;
+	private Position position; // the read-only view of this board given to the players, made when first asked for
+	private ThreatIndex threats; // the cells that would complete a line, made with the Position or when first asked for
 
 	// generic constructor
 	public BoardArray()
 	{
-		this.board = new Status[HEIGHT][WIDTH];
+		this(DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_OBJECTIVE);
+	}
+
+	public BoardArray(int width, int height, int objective)
+	{
+		if (width < 1 || height < 1 || objective < 1)
+		{
+			throw new IllegalArgumentException("Invalid board: " + width + "x" + height + ", connect " + objective);
+		}
+
+		this.WIDTH = width;
+		this.HEIGHT = height;
+		this.objective = objective;
+		this.COLUMN_BITS = HEIGHT + 1;
+		this.WORDS = (WIDTH * COLUMN_BITS + Long.SIZE - 1) / Long.SIZE;
+		this.heights = new int[WIDTH];
+		this.moves = new int[WIDTH * HEIGHT];
+
+		if (WORDS == 1)
+		{
+			for (int col = 0; col < WIDTH; col++)
+			{
+				this.bottomRow |= 1L << (col * COLUMN_BITS);
+			}
+		}
+		else
+		{
+			this.wordsOne = new long[WORDS];
+			this.wordsTwo = new long[WORDS];
+			this.line = new long[WORDS];
+			this.shifted = new long[WORDS];
+		}
+
+		long[][] keys = getZobristKeys(WIDTH * COLUMN_BITS);
+
+		this.zobristOne = keys[0];
+		this.zobristTwo = keys[1];
+
 		clearBoard();
 	}
 
+	// returns the shared Zobrist keys, making more if a board needs more than any before it
+	private static synchronized long[][] getZobristKeys(int size)
+	{
+		if (zobristKeys[0].length < size)
+		{
+			// the generator gives the same keys for each bit position however many are made
+			long[][] keys = new long[2][size];
+			Random generator = new Random(ZOBRIST_SEED);
+
+			for (int i = 0; i < size; i++)
+			{
+				keys[0][i] = generator.nextLong();
+				keys[1][i] = generator.nextLong();
+			}
+
+			zobristKeys = keys;
+		}
+
+		return zobristKeys;
+	}
+
 	// ------------------------------------------------------
 	//
 	// clearBoard
@@ -42,21 +190,76 @@ public class BoardArray
 	// ------------------------------------------------------
 	private void clearBoard()
 	{
-		for (int row = 0; row < this.HEIGHT; row++)
+		this.playerOne = 0L;
+		this.playerTwo = 0L;
+
+		if (this.WORDS > 1)
 		{
-			for (int col = 0; col < this.WIDTH; col++)
+			for (int i = 0; i < this.WORDS; i++)
 			{
-				this.board[row][col] = Status.NEITHER;
+				this.wordsOne[i] = 0L;
+				this.wordsTwo[i] = 0L;
 			}
 		}
+
+		this.moveCount = 0;
+		this.hash = 0L;
+		this.mirrorHash = 0L;
+		this.mirrorOne = 0L;
+		this.mirrorTwo = 0L;
+
+		for (int col = 0; col < this.WIDTH; col++)
+		{
+			this.heights[col] = 0;
+		}
+
+		if (this.threats != null)
+		{
+			this.threats.clear();
+		}
+
+		this.boardStale = true;
 	}
 
-	// various getters for the class
+	// ------------------------------------------------------
+	//
+	// getBoard
+	//
+	// PURPOSE: The purpose of this method is to return the
+	// board as a 2D array of statuses, where row 0 is the
+	// top of the board. The array is only rebuilt from the
+	// bitboards if the board has changed since the last
+	// time it was requested.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: the game board as a Status[][].
+	//
+	// ------------------------------------------------------
 	public Status[][] getBoard()
 	{
+		if (this.board == null)
+		{
+			this.board = new Status[this.HEIGHT][this.WIDTH];
+		}
+
+		if (this.boardStale)
+		{
+			for (int row = 0; row < this.HEIGHT; row++)
+			{
+				for (int col = 0; col < this.WIDTH; col++)
+				{
+					this.board[row][col] = getCell(row, col);
+				}
+			}
+
+			this.boardStale = false;
+		}
+
 		return this.board;
 	}
 
+	// various getters for the class
 	public int getWidth()
 	{
 		return this.WIDTH;
@@ -72,14 +275,583 @@ public class BoardArray
 		return this.objective;
 	}
 
+	public int getMoveCount()
+	{
+		return this.moveCount;
+	}
+
+	// the column of the given move, counting from 0
+	public int getMove(int ply)
+	{
+		return this.moves[ply];
+	}
+
+	// the column of the most recent move, or -1 if the board is empty
+	public int getLastMove()
+	{
+		return (this.moveCount > 0) ? this.moves[this.moveCount - 1] : -1;
+	}
+
+	// the token of the player to move next, as Status.ONE always moves first
+	public Status getTurn()
+	{
+		return (this.moveCount % 2 == 0) ? Status.ONE : Status.TWO;
+	}
+
+	// the read-only view of this board, which always shows its current state, and finds wins in its threat index
+	public Position getPosition()
+	{
+		if (this.position == null)
+		{
+			this.position = new Position(this);
+			makeThreats();
+		}
+
+		return this.position;
+	}
+
+	// the board is full once every cell holds a token, so there is no need to scan it
+	public boolean isFull()
+	{
+		return this.moveCount == this.WIDTH * this.HEIGHT;
+	}
+
 	public Status getCell(int row, int col)
 	{
-		return this.board[row][col];
+		int index = col * this.COLUMN_BITS + (this.HEIGHT - 1 - row);
+		long bit = 1L << index; // only the low 6 bits of the shift are used, giving the bit within its word
+		Status token = Status.NEITHER;
+
+		if (this.WORDS == 1)
+		{
+			if ((this.playerOne & bit) != 0)
+			{
+				token = Status.ONE;
+			}
+			else if ((this.playerTwo & bit) != 0)
+			{
+				token = Status.TWO;
+			}
+		}
+		else if ((this.wordsOne[index >>> 6] & bit) != 0)
+		{
+			token = Status.ONE;
+		}
+		else if ((this.wordsTwo[index >>> 6] & bit) != 0)
+		{
+			token = Status.TWO;
+		}
+
+		return token;
+	}
+
+	public long getHash()
+	{
+		return this.hash;
+	}
+
+	// the hash shared by the board and its mirror image, the smaller of their two hashes
+	public long getCanonicalHash()
+	{
+		return Math.min(this.hash, this.mirrorHash);
+	}
+
+	// checks whether the canonical hash is the mirror image's, so that stored moves must be mirrored
+	public boolean isMirrored()
+	{
+		return this.mirrorHash < this.hash;
+	}
+
+	// the column in the mirror image if the board is mirrored, which also maps a stored move back; -1 stays -1
+	public int canonicalMove(int col)
+	{
+		return (col >= 0 && isMirrored()) ? this.WIDTH - 1 - col : col;
+	}
+
+	// ------------------------------------------------------
+	//
+	// getPositionKey
+	//
+	// PURPOSE: The purpose of this method is to return a key
+	// which is different for every possible board, unlike
+	// the hash, which two boards could share. Adding the
+	// bottom row to the occupied cells leaves one bit set in
+	// each column, just above its top token, and Status.ONE's
+	// tokens are all below those bits, so the two can be
+	// combined without overlapping. The other player's
+	// tokens are then the remaining cells below each
+	// column's bit.
+	//
+	// Keys are built from the tokens of the player who moved
+	// first, so that the same board gets the same key
+	// whichever token that player happened to use. Only
+	// single-word boards have keys.
+	//
+	// PARAMETERS:
+	// - firstToken: the token of the player who moved first.
+	//
+	// RETURNS: the key of the board.
+	//
+	// ------------------------------------------------------
+	public long getPositionKey(Status firstToken)
+	{
+		if (this.WORDS > 1)
+		{
+			throw new IllegalStateException("Position keys need a board of at most 64 bits");
+		}
+
+		long first = (firstToken == Status.ONE) ? this.playerOne : this.playerTwo;
+
+		return first | ((this.playerOne | this.playerTwo) + this.bottomRow);
 	}
 
-	// a setter for the class for a single cell
-	public void setCell(int row, int col, Status token)
+	// the key of the board when Status.ONE moved first, as it does in GameLogic
+	public long getPositionKey()
 	{
-		this.board[row][col] = token;
+		return getPositionKey(Status.ONE);
+	}
+
+	// the key shared by the board and its mirror image, the smaller of their two keys, when Status.ONE moved first
+	public long getCanonicalPositionKey()
+	{
+		long key = getPositionKey(Status.ONE);
+
+		// the bottom row is the same in the mirror image, so its key is built in the same way
+		return Math.min(key, this.mirrorOne | ((this.mirrorOne | this.mirrorTwo) + this.bottomRow));
+	}
+
+	// checks whether the given board has the same size and objective as this one, so that it can be copied
+	public boolean isSameSize(BoardArray other)
+	{
+		return this.WIDTH == other.WIDTH && this.HEIGHT == other.HEIGHT && this.objective == other.objective;
+	}
+
+	public int getColumnHeight(int col)
+	{
+		return this.heights[col];
+	}
+
+	// ------------------------------------------------------
+	//
+	// copyFrom
+	//
+	// PURPOSE: The purpose of this method is to make this
+	// board identical to the given board, without creating
+	// any new objects, so that a board can be reused as a
+	// scratch copy of another.
+	//
+	// PARAMETERS:
+	// - other: the board to copy, which must be the same
+	// size.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void copyFrom(BoardArray other)
+	{
+		this.playerOne = other.playerOne;
+		this.playerTwo = other.playerTwo;
+
+		if (this.WORDS > 1)
+		{
+			System.arraycopy(other.wordsOne, 0, this.wordsOne, 0, this.WORDS);
+			System.arraycopy(other.wordsTwo, 0, this.wordsTwo, 0, this.WORDS);
+		}
+
+		this.moveCount = other.moveCount;
+		this.hash = other.hash;
+		this.mirrorHash = other.mirrorHash;
+		this.mirrorOne = other.mirrorOne;
+		this.mirrorTwo = other.mirrorTwo;
+		System.arraycopy(other.heights, 0, this.heights, 0, this.WIDTH);
+		System.arraycopy(other.moves, 0, this.moves, 0, this.moveCount);
+		this.boardStale = true;
+
+		if (this.threats != null)
+		{
+			rebuildThreats();
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// canPlay
+	//
+	// PURPOSE: The purpose of this method is to determine
+	// whether or not the given column has room for another
+	// token.
+	//
+	// PARAMETERS:
+	// - col: the column to check.
+	//
+	// RETURNS: true if the column is not yet full.
+	//
+	// ------------------------------------------------------
+	public boolean canPlay(int col)
+	{
+		return this.heights[col] < this.HEIGHT;
+	}
+
+	// ------------------------------------------------------
+	//
+	// dropToken
+	//
+	// PURPOSE: The purpose of this method is to drop the
+	// given token into the given column, where it lands on
+	// top of the tokens already in that column. The
+	// column's height says exactly which cell that is, so
+	// the token is written straight into its final cell.
+	//
+	// PARAMETERS:
+	// - col: the column to drop the token into. The column
+	// must not be full (see canPlay).
+	// - token: the token being dropped (ONE or TWO).
+	//
+	// RETURNS: the row the token landed in.
+	//
+	// ------------------------------------------------------
+	public int dropToken(int col, Status token)
+	{
+		int index = col * this.COLUMN_BITS + this.heights[col];
+		int mirrorIndex = (this.WIDTH - 1 - col) * this.COLUMN_BITS + this.heights[col];
+		long bit = 1L << index;
+
+		if (token == Status.ONE)
+		{
+			if (this.WORDS == 1)
+			{
+				this.playerOne |= bit;
+				this.mirrorOne |= 1L << mirrorIndex;
+			}
+			else
+			{
+				this.wordsOne[index >>> 6] |= bit;
+			}
+
+			this.hash ^= this.zobristOne[index];
+			this.mirrorHash ^= this.zobristOne[mirrorIndex];
+		}
+		else
+		{
+			if (this.WORDS == 1)
+			{
+				this.playerTwo |= bit;
+				this.mirrorTwo |= 1L << mirrorIndex;
+			}
+			else
+			{
+				this.wordsTwo[index >>> 6] |= bit;
+			}
+
+			this.hash ^= this.zobristTwo[index];
+			this.mirrorHash ^= this.zobristTwo[mirrorIndex];
+		}
+
+		if (this.threats != null)
+		{
+			this.threats.add(index, token);
+		}
+
+		this.heights[col]++;
+		this.moves[this.moveCount++] = col;
+		this.boardStale = true;
+
+		return this.HEIGHT - this.heights[col];
+	}
+
+	// ------------------------------------------------------
+	//
+	// undoToken
+	//
+	// PURPOSE: The purpose of this method is to remove the
+	// top-most token from the given column, reversing the
+	// most recent dropToken call on that column.
+	//
+	// PARAMETERS:
+	// - col: the column to remove the token from. The
+	// column must not be empty.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void undoToken(int col)
+	{
+		this.heights[col]--;
+
+		int index = col * this.COLUMN_BITS + this.heights[col];
+		int mirrorIndex = (this.WIDTH - 1 - col) * this.COLUMN_BITS + this.heights[col];
+		long bit = 1L << index;
+
+		if (this.threats != null)
+		{
+			this.threats.remove(index);
+		}
+
+		if (this.WORDS > 1)
+		{
+			if ((this.wordsOne[index >>> 6] & bit) != 0)
+			{
+				this.wordsOne[index >>> 6] &= ~bit;
+				this.hash ^= this.zobristOne[index];
+				this.mirrorHash ^= this.zobristOne[mirrorIndex];
+			}
+			else
+			{
+				this.wordsTwo[index >>> 6] &= ~bit;
+				this.hash ^= this.zobristTwo[index];
+				this.mirrorHash ^= this.zobristTwo[mirrorIndex];
+			}
+		}
+		else if ((this.playerOne & bit) != 0)
+		{
+			this.playerOne &= ~bit;
+			this.mirrorOne &= ~(1L << mirrorIndex);
+			this.hash ^= this.zobristOne[index];
+			this.mirrorHash ^= this.zobristOne[mirrorIndex];
+		}
+		else
+		{
+			this.playerTwo &= ~bit;
+			this.mirrorTwo &= ~(1L << mirrorIndex);
+			this.hash ^= this.zobristTwo[index];
+			this.mirrorHash ^= this.zobristTwo[mirrorIndex];
+		}
+
+		this.moveCount--;
+		this.boardStale = true;
+	}
+
+	// ------------------------------------------------------
+	//
+	// getWinningColumn
+	//
+	// PURPOSE: The purpose of this method is to find a
+	// column where the given token would complete a line
+	// straight away. Unless the board has given out a
+	// Position, the first call builds the board's
+	// ThreatIndex from the tokens already on it, and it is
+	// then kept up to date by dropToken and undoToken. For
+	// single-word boards, the token's threats
+	// are intersected with the cell just above each column's
+	// top token (which is the sentinel bit for a full
+	// column, and never a threat), otherwise each column's
+	// next cell is checked.
+	//
+	// PARAMETERS:
+	// - token: the token (ONE or TWO) to find a win for.
+	// Passing the opponent's token finds the column that
+	// must be blocked.
+	//
+	// RETURNS: the leftmost such column, or -1 if there is
+	// none.
+	//
+	// ------------------------------------------------------
+	public int getWinningColumn(Status token)
+	{
+		int chosenColumn = -1;
+
+		makeThreats();
+
+		if (this.WORDS == 1)
+		{
+			long playable = (this.playerOne | this.playerTwo) + this.bottomRow;
+			long wins = this.threats.getThreats(token, 0) & playable;
+
+			if (wins != 0)
+			{
+				chosenColumn = Long.numberOfTrailingZeros(wins) / this.COLUMN_BITS;
+			}
+		}
+		else
+		{
+			for (int col = 0; col < this.WIDTH && chosenColumn == -1; col++)
+			{
+				if (canPlay(col) && this.threats.isThreat(col * this.COLUMN_BITS + this.heights[col], token))
+				{
+					chosenColumn = col;
+				}
+			}
+		}
+
+		return chosenColumn;
+	}
+
+	// ------------------------------------------------------
+	//
+	// getWindowScore
+	//
+	// PURPOSE: The purpose of this method is to return the
+	// board's score from the given window weights (see
+	// WindowEvaluator), which the ThreatIndex keeps up to
+	// date with every drop and undo. The first time it is
+	// asked for with these weights, the index is made again
+	// with them and built from the tokens already on the
+	// board.
+	//
+	// PARAMETERS:
+	// - weights: the score of a window by the number of one
+	// player's tokens in it, which must not be changed.
+	//
+	// RETURNS: the score from Status.ONE's point of view.
+	//
+	// ------------------------------------------------------
+	public int getWindowScore(int[] weights)
+	{
+		if (this.threats == null || this.threats.getWeights() != weights)
+		{
+			this.threats = new ThreatIndex(this.WIDTH, this.HEIGHT, this.objective, weights);
+			rebuildThreats();
+		}
+
+		return this.threats.getScore();
+	}
+
+	// makes the threat index and builds it from the tokens already on the board, unless there is one already
+	private void makeThreats()
+	{
+		if (this.threats == null)
+		{
+			this.threats = new ThreatIndex(this.WIDTH, this.HEIGHT, this.objective);
+			rebuildThreats();
+		}
+	}
+
+	// adds every token on the board to the empty threat index, after it is made or the board is copied over
+	private void rebuildThreats()
+	{
+		this.threats.clear();
+
+		for (int col = 0; col < this.WIDTH; col++)
+		{
+			for (int row = 0; row < this.heights[col]; row++)
+			{
+				this.threats.add(col * this.COLUMN_BITS + row, getCell(this.HEIGHT - 1 - row, col));
+			}
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// isWin
+	//
+	// PURPOSE: The purpose of this method is to determine
+	// whether or not the given token has objective tokens
+	// in a line. For each direction, the bitboard is shifted
+	// and masked against itself, leaving a bit set only
+	// where a full line starts. The directions are vertical
+	// (1), horizontal (COLUMN_BITS), and the two diagonals
+	// (COLUMN_BITS + 1 and COLUMN_BITS - 1).
+	//
+	// PARAMETERS:
+	// - token: the token (ONE or TWO) to check.
+	//
+	// RETURNS: true if the token has won.
+	//
+	// ------------------------------------------------------
+	public boolean isWin(Status token)
+	{
+		boolean win;
+
+		if (this.WORDS == 1)
+		{
+			long bits = (token == Status.ONE) ? this.playerOne : this.playerTwo;
+
+			win = hasLine(bits, 1) || hasLine(bits, this.COLUMN_BITS)
+					|| hasLine(bits, this.COLUMN_BITS + 1) || hasLine(bits, this.COLUMN_BITS - 1);
+		}
+		else
+		{
+			long[] bits = (token == Status.ONE) ? this.wordsOne : this.wordsTwo;
+
+			win = hasLine(bits, 1) || hasLine(bits, this.COLUMN_BITS)
+					|| hasLine(bits, this.COLUMN_BITS + 1) || hasLine(bits, this.COLUMN_BITS - 1);
+		}
+
+		return win;
+	}
+
+	// ------------------------------------------------------
+	//
+	// hasLine
+	//
+	// PURPOSE: The purpose of this method is to check a
+	// single bitboard for objective set bits in a line,
+	// where each bit in the line is the given distance from
+	// the previous one.
+	//
+	// PARAMETERS:
+	// - bits: the bitboard to check.
+	// - shift: the distance between neighbouring cells of
+	// the line.
+	//
+	// RETURNS: true if such a line exists.
+	//
+	// ------------------------------------------------------
+	private boolean hasLine(long bits, int shift)
+	{
+		long line = bits;
+
+		for (int i = 1; i < this.objective && line != 0; i++)
+		{
+			int distance = i * shift;
+
+			// a shift of 64 or more would wrap around in Java, but no line can be that long
+			line &= (distance < Long.SIZE) ? bits >>> distance : 0L;
+		}
+
+		return line != 0;
+	}
+
+	// ------------------------------------------------------
+	//
+	// hasLine
+	//
+	// PURPOSE: The purpose of this method is to do the same
+	// as the single-word hasLine, for a multi-word bitboard,
+	// using the scratch arrays so that nothing is allocated.
+	//
+	// PARAMETERS:
+	// - bits: the bitboard to check.
+	// - shift: the distance between neighbouring cells of
+	// the line.
+	//
+	// RETURNS: true if such a line exists.
+	//
+	// ------------------------------------------------------
+	private boolean hasLine(long[] bits, int shift)
+	{
+		boolean any = true;
+
+		System.arraycopy(bits, 0, this.line, 0, this.WORDS);
+
+		for (int i = 1; i < this.objective && any; i++)
+		{
+			shiftRight(bits, i * shift, this.shifted);
+			any = false;
+
+			for (int word = 0; word < this.WORDS; word++)
+			{
+				this.line[word] &= this.shifted[word];
+				any |= this.line[word] != 0;
+			}
+		}
+
+		return any;
+	}
+
+	// shifts a multi-word bitboard towards its lowest bit by the given distance, writing the result to out
+	private void shiftRight(long[] bits, int distance, long[] out)
+	{
+		int words = distance >>> 6;
+		int offset = distance & 63;
+
+		for (int word = 0; word < this.WORDS; word++)
+		{
+			int from = word + words;
+			long low = (from < this.WORDS) ? bits[from] >>> offset : 0L;
+			long high = (offset != 0 && from + 1 < this.WORDS) ? bits[from + 1] << (64 - offset) : 0L;
+
+			out[word] = low | high;
+		}
 	}
 }
@@ -0,0 +1,20 @@
+
+//------------------------------------------------------
+//
+// INTERFACE: BoardEvaluator
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this interface is to let the
+//          searching AI difficulties score a board that
+//          is not yet won or lost, so that the way a
+//          board is judged can be swapped out without
+//          changing the search itself.
+//
+//------------------------------------------------------
+
+public interface BoardEvaluator
+{
+	// returns a score for the board from the given token's point of view, where a higher score is better
+	public int evaluate(BoardArray board, Status token);
+}
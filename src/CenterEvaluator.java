@@ -0,0 +1,64 @@
+
+//------------------------------------------------------
+//
+// CLASS: CenterEvaluator
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to provide a
+//          simple board evaluation, which rewards tokens
+//          placed near the middle column of the board,
+//          since those tokens are part of the most
+//          possible lines.
+//
+//------------------------------------------------------
+
+public class CenterEvaluator implements BoardEvaluator
+{
+	// ------------------------------------------------------
+	//
+	// evaluate
+	//
+	// PURPOSE: The purpose of this method is to score the
+	// board by giving each token a weight based on how close
+	// its column is to the middle of the board. The given
+	// token's weights are added and the opponent's weights
+	// are subtracted.
+	//
+	// PARAMETERS:
+	// - board: the board to score.
+	// - token: the token whose point of view is used.
+	//
+	// RETURNS: the score of the board.
+	//
+	// ------------------------------------------------------
+	public int evaluate(BoardArray board, Status token)
+	{
+		int score = 0;
+		int middle = board.getWidth() / 2;
+
+		for (int row = 0; row < board.getHeight(); row++)
+		{
+			for (int col = 0; col < board.getWidth(); col++)
+			{
+				Status cell = board.getCell(row, col);
+
+				if (cell != Status.NEITHER)
+				{
+					int weight = middle + 1 - Math.abs(col - middle);
+
+					if (cell == token)
+					{
+						score += weight;
+					}
+					else
+					{
+						score -= weight;
+					}
+				}
+			}
+		}
+
+		return score;
+	}
+}
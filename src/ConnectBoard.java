@@ -12,18 +12,21 @@ public class ConnectBoard implements GameDisplay {
 	private JFrame frame;
 	private ArrayList<JButton> dropButtons;
 	private JPanel panel;
-	private final int WIDTH = 7;
-	private final int HEIGHT = 6;
+	private final int WIDTH;
+	private final int HEIGHT;
 	private final int IMG_SIZE = 150;
+	private final int MAX_BOARD_SIZE = 1050; // the widest or tallest the cells may be, shrinking the images to fit
 	private final String IMG_PATH_EMPTY = "./Circle.jpg";
 	private final String IMG_PATH_RED = "./CircleRed.jpg";
 	private final String IMG_PATH_YELLOW = "./CircleYellow.jpg";
-	private final int FRAME_WIDTH = WIDTH*IMG_SIZE;
-	private final int FRAME_HEIGHT = (HEIGHT+1)*IMG_SIZE+20;
+	private final int cellSize;
 	private ImageIcon icon_empty;
 	private ImageIcon icon_one;
 	private ImageIcon icon_two;
 	private ConnectController cc;
+	private JLabel[][] cells; // the labels showing the cells, made once and kept for the whole program
+	private Status[][] shownBoard; // the token each label shows, so that only the cells that change are redrawn
+	private boolean thinking; // true while the AI is choosing its move
 
 	class DropListener implements ActionListener {
 
@@ -34,11 +37,19 @@ public class ConnectBoard implements GameDisplay {
 				JButton button = (JButton) o;
 				ind = dropButtons.indexOf(button);
 				//System.out.println(ind);
-				boolean success = cc.addPiece(ind);
-				if (!success) {
-					JOptionPane.showMessageDialog(frame, "ERROR! Column Full");
-					button.setEnabled(false);
+				if (thinking) {
+					return;
 				}
+				// the AI thinks on another thread, and the drop buttons are disabled until it has replied
+				thinking = true;
+				setDropButtonsEnabled(false);
+				cc.addPieceAsync(ind).whenComplete((success, error) -> {
+					thinking = false;
+					if (Boolean.FALSE.equals(success)) {
+						JOptionPane.showMessageDialog(frame, "ERROR! Column Full");
+					}
+					setDropButtonsEnabled(true);
+				});
 			} else {
 				System.out.println("Error: got " + o.getClass().toString());
 			}
@@ -49,36 +60,33 @@ public class ConnectBoard implements GameDisplay {
 
 	private void drawBoard(Status[][] board) { 
 
-
-		panel.removeAll();
-		this.drawTops();
-
+		// only the labels whose token has changed get a new icon, and each repaints just itself
 		for (int i = 0; i < HEIGHT; i++) {
 			for (int j = 0; j < WIDTH; j++) { 
-				ImageIcon icon = null;
 				Status s = board[i][j];
-				//System.out.println(s);
-				switch (s) {
-				case ONE:
-					icon = icon_one;
-					break;
-				case TWO:
-					icon = icon_two;
-					break;
-				case NEITHER:
-					icon = icon_empty;
-					break;
+				if (s != shownBoard[i][j]) {
+					shownBoard[i][j] = s;
+					cells[i][j].setIcon(iconFor(s));
 				}
-				JLabel label = new JLabel(icon);
-				panel.add(label);
 			}
-			//System.out.println();
 		}
-		panel.revalidate();
-
-		panel.repaint();
 
+	}
 
+	private ImageIcon iconFor(Status s) {
+		ImageIcon icon = null;
+		switch (s) {
+		case ONE:
+			icon = icon_one;
+			break;
+		case TWO:
+			icon = icon_two;
+			break;
+		case NEITHER:
+			icon = icon_empty;
+			break;
+		}
+		return icon;
 	}
 
 	private void drawTops() {
@@ -89,30 +97,67 @@ public class ConnectBoard implements GameDisplay {
 
 	private void reset() {
 
-		panel.removeAll();
-		drawTops();
-		for (int i = 0; i < WIDTH*(HEIGHT); i++) {
-			JLabel label = new JLabel(icon_empty);
-			panel.add(label);
-
+		for (int i = 0; i < HEIGHT; i++) {
+			for (int j = 0; j < WIDTH; j++) {
+				if (shownBoard[i][j] != Status.NEITHER) {
+					shownBoard[i][j] = Status.NEITHER;
+					cells[i][j].setIcon(icon_empty);
+				}
+			}
 		}
 		for (JButton j : dropButtons) {
 			j.setEnabled(true);
 		}
-		panel.revalidate();
-		panel.repaint();
 		cc.reset();
 
 	}
-	public ConnectBoard() { 
-		cc = ControllerFactory.makeController(this);
+	public ConnectBoard() {
+		this(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE);
+	}
+
+	public ConnectBoard(int width, int height, int objective) { 
+		this(width, height, objective, false);
+	}
+
+	// if pondering is true, the AI keeps thinking while waiting for the player's move
+	public ConnectBoard(int width, int height, int objective, boolean pondering) { 
+		WIDTH = width;
+		HEIGHT = height;
+		cellSize = Math.min(IMG_SIZE, MAX_BOARD_SIZE / Math.max(WIDTH, HEIGHT + 1));
+		cc = ControllerFactory.makeController(this, width, height, objective, SwingUtilities::invokeLater, pondering);
 		
 		frame = new JFrame();
-		frame.setSize(FRAME_WIDTH, FRAME_HEIGHT);
+
+		// starting a new game part way through cancels the AI's move, if it is thinking
+		JMenuBar menuBar = new JMenuBar();
+		JMenu gameMenu = new JMenu("Game");
+		JMenuItem newGame = new JMenuItem("New Game");
+		newGame.addActionListener(e -> reset());
+		gameMenu.add(newGame);
+		// undo takes back the player's last move and the AI's reply, and redo plays them again
+		JMenuItem undo = new JMenuItem("Undo");
+		undo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+		undo.addActionListener(e -> {
+			if (!thinking && cc.undo()) {
+				setDropButtonsEnabled(true);
+			}
+		});
+		gameMenu.add(undo);
+		JMenuItem redo = new JMenuItem("Redo");
+		redo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
+		redo.addActionListener(e -> {
+			if (!thinking && cc.redo()) {
+				setDropButtonsEnabled(true);
+			}
+		});
+		gameMenu.add(redo);
+		menuBar.add(gameMenu);
+		frame.setJMenuBar(menuBar);
+		frame.setSize(WIDTH*cellSize, (HEIGHT+1)*cellSize+20+menuBar.getPreferredSize().height);
 
 		panel = new JPanel();
 		frame.add(panel);
-		panel.setLayout( new GridLayout (WIDTH, HEIGHT)); 
+		panel.setLayout( new GridLayout (HEIGHT+1, WIDTH)); 
 
 		dropButtons = new ArrayList<JButton>();
 		for (int i = 0; i < WIDTH ; i++) { 
@@ -124,16 +169,27 @@ public class ConnectBoard implements GameDisplay {
 
 		try {
 			BufferedImage img_empty = ImageIO.read(new File(IMG_PATH_EMPTY));
-			icon_empty = new ImageIcon(img_empty);
+			icon_empty = makeIcon(img_empty);
 			BufferedImage img_one = ImageIO.read(new File(IMG_PATH_RED));
-			icon_one = new ImageIcon(img_one);
+			icon_one = makeIcon(img_one);
 			BufferedImage img_two = ImageIO.read(new File(IMG_PATH_YELLOW));
-			icon_two = new ImageIcon(img_two);
+			icon_two = makeIcon(img_two);
 
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 
+		// the buttons and labels are added to the grid once, and drawBoard only changes the labels' icons
+		drawTops();
+		cells = new JLabel[HEIGHT][WIDTH];
+		shownBoard = new Status[HEIGHT][WIDTH];
+		for (int i = 0; i < HEIGHT; i++) {
+			for (int j = 0; j < WIDTH; j++) {
+				cells[i][j] = new JLabel(icon_empty);
+				shownBoard[i][j] = Status.NEITHER;
+				panel.add(cells[i][j]);
+			}
+		}
 
 		reset();
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -141,6 +197,22 @@ public class ConnectBoard implements GameDisplay {
 		frame.setResizable(false);
 	}
 
+	// enables the buttons of the columns that are not full, or disables every button
+	private void setDropButtonsEnabled(boolean enabled) {
+		for (int i = 0; i < WIDTH; i++) {
+			dropButtons.get(i).setEnabled(enabled && shownBoard[0][i] == Status.NEITHER);
+		}
+	}
+
+	// shrinks the image to the cell size, when the board is too big for full size images
+	private ImageIcon makeIcon(BufferedImage img) {
+		ImageIcon icon = new ImageIcon(img);
+		if (cellSize < IMG_SIZE) {
+			icon = new ImageIcon(img.getScaledInstance(cellSize, cellSize, Image.SCALE_SMOOTH));
+		}
+		return icon;
+	}
+
 	@Override
 	public void gameOver(Status PlayerNumber) {
 		String out = "";
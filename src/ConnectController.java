@@ -1,5 +1,10 @@
 
+import java.util.concurrent.CompletableFuture;
+
 public interface ConnectController {
 	public boolean addPiece(int col);
+	public CompletableFuture<Boolean> addPieceAsync(int col);
+	public boolean undo();
+	public boolean redo();
 	public void reset();
 }
@@ -1,4 +1,4 @@
-
 public interface ConnectPlayer {
-	public int makeMove(int lastCol);
+	// returns the column to play on the given board, where it is this player's turn (see Position.getTurn())
+	public int makeMove(Position position);
 }
@@ -9,14 +9,42 @@
 //          class that implements the ConnectController
 //          interface (the GameLogic class), so that the
 //          GameDisplay class need not know of the name
-//          of the GameLogic class.
+//          of the GameLogic class. The AI only ponders
+//          while the person thinks if that is asked for,
+//          since it keeps a core busy on their time.
 //
 //------------------------------------------------------
 
+import java.util.concurrent.Executor;
+
 public class ControllerFactory
 {
 	public static ConnectController makeController(GameDisplay gd)
 	{
-		return new GameLogic(gd);
+		return makeController(gd, BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE);
+	}
+
+	// creates a controller for a board of the given size, where objective tokens in a line are needed to win
+	public static ConnectController makeController(GameDisplay gd, int width, int height, int objective)
+	{
+		return makeController(gd, width, height, objective, Runnable::run);
+	}
+
+	// as above, where asynchronous moves update the display through the given executor
+	public static ConnectController makeController(GameDisplay gd, int width, int height, int objective,
+			Executor displayExecutor)
+	{
+		return makeController(gd, width, height, objective, displayExecutor, false);
+	}
+
+	// as above, where the AI thinks during the person's turn if pondering is true
+	public static ConnectController makeController(GameDisplay gd, int width, int height, int objective,
+			Executor displayExecutor, boolean pondering)
+	{
+		GameLogic logic = new GameLogic(gd, width, height, objective, displayExecutor);
+
+		logic.setPondering(pondering);
+
+		return logic;
 	}
 }
@@ -0,0 +1,395 @@
+
+//------------------------------------------------------
+//
+// CLASS: DifficultyMonteCarlo
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to create and
+//          manage an AI that chooses its move with a
+//          Monte Carlo tree search. Instead of scoring
+//          boards, it plays many random games (playouts)
+//          from the current board and grows a tree of
+//          the moves that have done best so far, using
+//          the UCT formula to balance trying the best
+//          moves against trying less explored ones. The
+//          more time it is given, the stronger it plays.
+//
+//          The tree is kept in primitive arrays that are
+//          allocated once, where each node is an index
+//          into the arrays and a node's children are
+//          stored next to each other. Playouts are run
+//          on a scratch copy of the board, so no objects
+//          are created while the AI is thinking.
+//
+//          When it is given an EndgameTable, a playout that
+//          reaches a board the table covers ends there with
+//          the board's exact result, rather than playing on
+//          at random.
+//
+//------------------------------------------------------
+
+public class DifficultyMonteCarlo extends GameAI
+{
+	public static final double DEFAULT_EXPLORATION = 1.41; // about the square root of 2, the usual UCT constant
+	public static final int DEFAULT_MAX_NODES = 1 << 18;
+
+	private static final int CHECK_INTERVAL = 63; // the number of playouts between checks of the clock, minus one
+	private static final int NOT_EXPANDED = -1; // the firstChild of a node whose children have not been added yet
+
+	private BoardArray scratch; // the board that each playout is played on, which is returned to the root after each
+	private Status rootToken; // the token of the AI, which is to move at the root
+	private int[] playoutMoves; // the columns played on scratch during the current playout, so they can be undone
+	private long timeBudget; // the time allowed for each move, in milliseconds
+	private double exploration; // how strongly less explored moves are favoured
+	private int[] firstChild; // the index of each node's first child, or NOT_EXPANDED
+	private int[] childCount; // the number of children of each node
+	private int[] parent; // the index of each node's parent, or -1 for the root
+	private byte[] move; // the column played to reach each node
+	private int[] visits; // the number of playouts that have passed through each node
+	private float[] wins; // the playout results through each node, for the player who made its move
+	private int nodeCount; // the number of nodes used in the arrays
+	private EndgameTable endgame; // the exact scores of boards near the end of the game, or null
+	private long seed; // the state of the xorshift random number generator used by the playouts
+	private long lastPlayouts; // the number of playouts run for the most recent move
+	private long lastElapsed; // the time taken by the most recent move, in nanoseconds
+
+	// generic constructor
+	public DifficultyMonteCarlo()
+	{
+		this(DifficultyThree.INTERACTIVE_TIME_BUDGET, DEFAULT_EXPLORATION, DEFAULT_MAX_NODES);
+	}
+
+	public DifficultyMonteCarlo(long timeBudget, double exploration, int maxNodes)
+	{
+		this(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE, timeBudget, exploration,
+				maxNodes);
+	}
+
+	public DifficultyMonteCarlo(int width, int height, int objective, long timeBudget, double exploration,
+			int maxNodes)
+	{
+		this.scratch = new BoardArray(width, height, objective);
+		this.playoutMoves = new int[width * height];
+		this.timeBudget = timeBudget;
+		this.exploration = exploration;
+		this.firstChild = new int[maxNodes];
+		this.childCount = new int[maxNodes];
+		this.parent = new int[maxNodes];
+		this.move = new byte[maxNodes];
+		this.visits = new int[maxNodes];
+		this.wins = new float[maxNodes];
+		this.seed = System.nanoTime() | 1; // the generator must never be seeded with 0
+	}
+
+	// playouts end as soon as they reach a board in the table
+	@Override
+	public void setEndgameTable(EndgameTable table)
+	{
+		this.endgame = table;
+	}
+
+	// various getters for the class, describing the most recent move
+	public long getPlayouts()
+	{
+		return this.lastPlayouts;
+	}
+
+	public long getPlayoutsPerSecond()
+	{
+		return (this.lastElapsed > 0) ? this.lastPlayouts * 1000000000L / this.lastElapsed : 0;
+	}
+
+	// ------------------------------------------------------
+	//
+	// makeMove
+	//
+	// PURPOSE: The purpose of this method is to let the AI
+	// search for the best column to play its token. This
+	// method will first copy the game's board into the
+	// scratch board, then run playouts until its time
+	// budget is spent, then choose the move that was
+	// explored the most, which is the most reliable choice.
+	//
+	// PARAMETERS:
+	// - position: a read-only view of the game's board,
+	// with the AI to move.
+	//
+	// RETURNS: chosenColumn, an int that tells the calling
+	// location which column was selected by the method.
+	//
+	// ------------------------------------------------------
+	public int makeMove(Position position)
+	{
+		long start = System.nanoTime();
+		long deadline = start + this.timeBudget * 1000000L;
+		long playouts = 0;
+		boolean outOfTime = false;
+
+		// a board of another size than the AI was made for gets a scratch board of its own size
+		if (!position.isSameSize(this.scratch))
+		{
+			this.scratch = new BoardArray(position.getWidth(), position.getHeight(), position.getObjective());
+			this.playoutMoves = new int[position.getWidth() * position.getHeight()];
+		}
+
+		position.copyTo(this.scratch);
+		this.rootToken = position.getTurn();
+
+		// start a new tree, where the root is the current board with the AI to move
+		this.nodeCount = 1;
+		this.parent[0] = -1;
+		this.firstChild[0] = NOT_EXPANDED;
+		this.childCount[0] = 0;
+		this.visits[0] = 0;
+		this.wins[0] = 0;
+		expand(0);
+
+		while (!outOfTime)
+		{
+			runPlayout();
+			playouts++;
+
+			if ((playouts & CHECK_INTERVAL) == 0)
+			{
+				// an interrupted thread (such as a cancelled move) stops early, with the best move so far
+				outOfTime = System.nanoTime() >= deadline || Thread.currentThread().isInterrupted();
+			}
+		}
+
+		int best = this.firstChild[0];
+
+		for (int child = this.firstChild[0]; child < this.firstChild[0] + this.childCount[0]; child++)
+		{
+			if (this.visits[child] > this.visits[best])
+			{
+				best = child;
+			}
+		}
+
+		int chosenColumn = this.move[best];
+
+		this.lastPlayouts = playouts;
+		this.lastElapsed = System.nanoTime() - start;
+
+		return chosenColumn;
+	}
+
+	// ------------------------------------------------------
+	//
+	// runPlayout
+	//
+	// PURPOSE: The purpose of this method is to run one
+	// iteration of the search. Starting from the root, the
+	// child with the best UCT value is followed until a node
+	// without children is reached (selection). That node's
+	// children are added, and one of them is moved to
+	// (expansion). The rest of the game is then played out
+	// with random moves (simulation), and the result is
+	// added to every node on the path back to the root
+	// (backpropagation).
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void runPlayout()
+	{
+		int node = 0;
+		Status token = this.rootToken; // the token of the player to move at node
+		Status winner = null; // the winner of the playout, or Status.NEITHER for a draw
+		int played = 0; // the number of moves in playoutMoves
+
+		// selection
+		while (winner == null && this.childCount[node] > 0)
+		{
+			node = selectChild(node);
+			this.scratch.dropToken(this.move[node], token);
+			this.playoutMoves[played++] = this.move[node];
+			winner = checkFinished(token);
+			token = (token == Status.ONE) ? Status.TWO : Status.ONE;
+		}
+
+		// expansion, once the node has been visited before, so that the tree only grows where it is used
+		if (winner == null && this.visits[node] > 0 && expand(node))
+		{
+			node = this.firstChild[node] + randomInt(this.childCount[node]);
+			this.scratch.dropToken(this.move[node], token);
+			this.playoutMoves[played++] = this.move[node];
+			winner = checkFinished(token);
+			token = (token == Status.ONE) ? Status.TWO : Status.ONE;
+		}
+
+		Status nodeToken = token; // the token of the player to move at the last node of the path
+
+		// simulation
+		while (winner == null)
+		{
+			int col = randomInt(this.scratch.getWidth());
+
+			if (this.scratch.canPlay(col))
+			{
+				this.scratch.dropToken(col, token);
+				this.playoutMoves[played++] = col;
+				winner = checkFinished(token);
+				token = (token == Status.ONE) ? Status.TWO : Status.ONE;
+			}
+		}
+
+		// take the moves back, leaving scratch as the root's board for the next playout without copying it
+		while (played > 0)
+		{
+			this.scratch.undoToken(this.playoutMoves[--played]);
+		}
+
+		// backpropagation, where nodeToken is the player to move at node, so the other player moved into it
+		while (node != -1)
+		{
+			Status mover = (nodeToken == Status.ONE) ? Status.TWO : Status.ONE;
+
+			this.visits[node]++;
+
+			if (winner == mover)
+			{
+				this.wins[node] += 1.0f;
+			}
+			else if (winner == Status.NEITHER)
+			{
+				this.wins[node] += 0.5f;
+			}
+
+			node = this.parent[node];
+			nodeToken = mover;
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// selectChild
+	//
+	// PURPOSE: The purpose of this method is to pick the
+	// child of the given node with the highest UCT value:
+	// the child's win rate, plus a bonus which is larger
+	// for children that have been visited less often. Any
+	// child that has never been visited is picked first.
+	//
+	// PARAMETERS:
+	// - node: the node whose children are considered.
+	//
+	// RETURNS: the index of the chosen child.
+	//
+	// ------------------------------------------------------
+	private int selectChild(int node)
+	{
+		int best = -1;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		double logVisits = Math.log(Math.max(this.visits[node], 1));
+
+		for (int child = this.firstChild[node]; child < this.firstChild[node] + this.childCount[node]
+				&& bestValue != Double.POSITIVE_INFINITY; child++)
+		{
+			double value = Double.POSITIVE_INFINITY;
+
+			if (this.visits[child] > 0)
+			{
+				value = this.wins[child] / this.visits[child]
+						+ this.exploration * Math.sqrt(logVisits / this.visits[child]);
+			}
+
+			if (value > bestValue)
+			{
+				bestValue = value;
+				best = child;
+			}
+		}
+
+		return best;
+	}
+
+	// ------------------------------------------------------
+	//
+	// expand
+	//
+	// PURPOSE: The purpose of this method is to add a child
+	// to the given node for each column that can be played
+	// on the scratch board, if there is room left in the
+	// arrays.
+	//
+	// PARAMETERS:
+	// - node: the node to expand, which must match the
+	// scratch board.
+	//
+	// RETURNS: true if children were added.
+	//
+	// ------------------------------------------------------
+	private boolean expand(int node)
+	{
+		boolean expanded = false;
+
+		if (this.nodeCount + this.scratch.getWidth() <= this.visits.length)
+		{
+			this.firstChild[node] = this.nodeCount;
+
+			for (int col = 0; col < this.scratch.getWidth(); col++)
+			{
+				if (this.scratch.canPlay(col))
+				{
+					int child = this.nodeCount++;
+
+					this.parent[child] = node;
+					this.move[child] = (byte) col;
+					this.firstChild[child] = NOT_EXPANDED;
+					this.childCount[child] = 0;
+					this.visits[child] = 0;
+					this.wins[child] = 0;
+				}
+			}
+
+			this.childCount[node] = this.nodeCount - this.firstChild[node];
+			expanded = this.childCount[node] > 0;
+		}
+
+		return expanded;
+	}
+
+	// checks whether the token just played ended the game on the scratch board, or left a board the table has solved
+	private Status checkFinished(Status token)
+	{
+		Status winner = null;
+
+		if (this.scratch.isWin(token))
+		{
+			winner = token;
+		}
+		else if (this.scratch.isFull())
+		{
+			winner = Status.NEITHER;
+		}
+		else if (this.endgame != null)
+		{
+			int score = this.endgame.probe(this.scratch); // for the player to move, who did not play token
+
+			if (score == 0)
+			{
+				winner = Status.NEITHER;
+			}
+			else if (score != EndgameTable.NOT_FOUND)
+			{
+				winner = ((score > 0) == (token == Status.TWO)) ? Status.ONE : Status.TWO;
+			}
+		}
+
+		return winner;
+	}
+
+	// returns a random number from 0 up to (but not including) bound, using an xorshift generator
+	private int randomInt(int bound)
+	{
+		this.seed ^= this.seed << 13;
+		this.seed ^= this.seed >>> 7;
+		this.seed ^= this.seed << 17;
+
+		return (int) ((this.seed >>> 33) % bound);
+	}
+}
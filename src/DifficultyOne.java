@@ -12,9 +12,9 @@
 
 public class DifficultyOne extends GameAI
 {
-	private int chosenColumn; // the latest column chosen by the human player
+	private int chosenColumn; // the latest column chosen by the AI
 
-	// generic constructor
+	// generic constructor, for a board of any size, since the AI only reads the board it is given
 	public DifficultyOne()
 	{
 		this.chosenColumn = 0; // the latest column is initialized to 0
@@ -25,21 +25,36 @@ public class DifficultyOne extends GameAI
 	// makeMove
 	//
 	// PURPOSE: The purpose of this method is to let the AI
-	// select which column it would like to play.
+	// select which column it would like to play. The AI
+	// copies the player's column, unless that column is
+	// full, in which case it plays the leftmost column with
+	// room. When the AI moves first, it plays the middle
+	// column.
 	//
 	// PARAMETERS:
-	// - lastCol: the column that was last selected by the
-	// player.
+	// - position: the board, where it is the AI's turn.
 	//
 	// RETURNS: chosenColumn, an int that tells the calling
 	// location which column was selected by the AI.
 	//
 	// ------------------------------------------------------
-	public int makeMove(int lastCol)
+	public int makeMove(Position position)
 	{
-		// due to the number of rows, this move will always be valid
-		// there is no need to check if this.board[0][lastCol] == Status.NEITHER
-		this.chosenColumn = lastCol;
+		int lastCol = position.getLastMove();
+
+		if (lastCol >= 0)
+		{
+			this.chosenColumn = lastCol;
+		}
+		else
+		{
+			this.chosenColumn = position.getWidth() / 2;
+		}
+
+		for (int col = 0; col < position.getWidth() && !position.canPlay(this.chosenColumn); col++)
+		{
+			this.chosenColumn = col;
+		}
 
 		return this.chosenColumn;
 	}
@@ -0,0 +1,192 @@
+
+//------------------------------------------------------
+//
+// CLASS: DifficultyOpeningBook
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to create and
+//          manage an AI that plays perfectly during the
+//          opening, by looking up the exact score of the
+//          board after each of its possible moves in an
+//          OpeningBook, rather than searching. Once the
+//          game leaves the book, or if there is no book
+//          for the board, it searches like DifficultyThree.
+//
+//------------------------------------------------------
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DifficultyOpeningBook extends GameAI
+{
+	private static final int TABLE_SIZE_BITS = 16; // the transposition table has 2^16 buckets
+
+	private OpeningBook book; // null if there is no book for the board
+	private NegamaxSearch search; // used once the game has left the book
+	private TranspositionTable table; // the search's table
+	private long timeBudget; // the time allowed for each searched move, in milliseconds
+	private int[] moveOrder; // the columns, ordered from the middle of the board outwards
+	private BoardArray board; // a copy of the game's board, which the AI tries its moves on
+	private Status token; // the token of the AI, which is to move on the board
+
+	// generic constructor
+	public DifficultyOpeningBook() throws IOException
+	{
+		this(OpeningBookBuilder.DEFAULT_PATH, DifficultyThree.INTERACTIVE_TIME_BUDGET);
+	}
+
+	// an AI using the book in the given file, which is shared with every other AI using it (see OpeningBook.forPath)
+	public DifficultyOpeningBook(String path, long timeBudget) throws IOException
+	{
+		this(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE,
+				OpeningBook.forPath(path), WindowEvaluator.forObjective(BoardArray.DEFAULT_OBJECTIVE), timeBudget);
+	}
+
+	// an AI using the given book, or only searching if it is null
+	public DifficultyOpeningBook(int width, int height, int objective, OpeningBook book, BoardEvaluator evaluator,
+			long timeBudget)
+	{
+		this.board = new BoardArray(width, height, objective);
+		this.timeBudget = timeBudget;
+		this.table = new TranspositionTable(TABLE_SIZE_BITS);
+		this.search = new NegamaxSearch(this.table, evaluator, 0, new AtomicBoolean());
+		this.moveOrder = new int[this.board.getWidth()];
+
+		// books are only built for the usual board (see OpeningBookBuilder), so any other board is searched
+		if (this.board.isSameSize(new BoardArray()))
+		{
+			this.book = book;
+		}
+
+		// alternate either side of the middle column: for 7 columns, this is 3, 2, 4, 1, 5, 0, 6
+		int middle = this.board.getWidth() / 2; // the right of the two middle columns, for an even width
+
+		for (int i = 0; i < this.moveOrder.length; i++)
+		{
+			int offset = (i + 1) / 2;
+			this.moveOrder[i] = (i % 2 == 1) ? middle - offset : middle + offset;
+		}
+	}
+
+	// the search used once the game has left the book looks up boards near the end of the game in the table
+	@Override
+	public void setEndgameTable(EndgameTable table)
+	{
+		this.search.setEndgameTable(table);
+	}
+
+	// empties the search's table and move ordering; the book itself is shared, and never changes
+	@Override
+	public void clear()
+	{
+		this.table.clear();
+		this.search.clearHistory();
+	}
+
+	// ------------------------------------------------------
+	//
+	// makeMove
+	//
+	// PURPOSE: The purpose of this method is to let the AI
+	// select which column it would like to play. This
+	// method will first copy the game's board, then choose
+	// a move from the book, or search if the book does not
+	// cover the board.
+	//
+	// PARAMETERS:
+	// - position: a read-only view of the game's board,
+	// with the AI to move.
+	//
+	// RETURNS: chosenColumn, an int that tells the calling
+	// location which column was selected by the method.
+	//
+	// ------------------------------------------------------
+	public int makeMove(Position position)
+	{
+		// the book and the move order were made for the board given to the constructor
+		if (!position.isSameSize(this.board))
+		{
+			throw new IllegalArgumentException("The opening book AI was made for a board of another size");
+		}
+
+		position.copyTo(this.board);
+		this.token = position.getTurn();
+
+		int chosenColumn = -1;
+
+		if (this.book != null)
+		{
+			chosenColumn = findBookMove();
+		}
+
+		if (chosenColumn == -1)
+		{
+			chosenColumn = this.search.search(this.board, this.token, DifficultyThree.MAX_DEPTH,
+					System.nanoTime() + this.timeBudget * 1000000L, 0);
+		}
+
+		return chosenColumn;
+	}
+
+	// ------------------------------------------------------
+	//
+	// findBookMove
+	//
+	// PURPOSE: The purpose of this method is to try each of
+	// the AI's possible moves and look up the resulting
+	// board in the book. The book's score is for the
+	// player, who moves next, so the AI's score is its
+	// negation. A move that wins straight away is not in the
+	// book, so it is checked for first.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: the column with the best score, or -1 if any
+	// of the resulting boards is missing from the book.
+	//
+	// ------------------------------------------------------
+	private int findBookMove()
+	{
+		int chosenColumn = -1;
+		int bestScore = Integer.MIN_VALUE;
+		boolean missing = false;
+
+		for (int i = 0; i < this.moveOrder.length && !missing; i++)
+		{
+			int col = this.moveOrder[i];
+
+			if (this.board.canPlay(col))
+			{
+				int score;
+
+				this.board.dropToken(col, this.token);
+
+				if (this.board.isWin(this.token))
+				{
+					score = Integer.MAX_VALUE;
+				}
+				else if (this.board.isFull())
+				{
+					score = 0;
+				}
+				else
+				{
+					score = this.book.lookup(this.board.getCanonicalPositionKey());
+					missing = (score == OpeningBook.NOT_FOUND);
+					score = -score;
+				}
+
+				this.board.undoToken(col);
+
+				if (score > bestScore)
+				{
+					bestScore = score;
+					chosenColumn = col;
+				}
+			}
+		}
+
+		return missing ? -1 : chosenColumn;
+	}
+}
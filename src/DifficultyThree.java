@@ -0,0 +1,535 @@
+
+//------------------------------------------------------
+//
+// CLASS: DifficultyThree
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to create and
+//          manage an AI that looks ahead, using an
+//          iteratively deepened negamax search with
+//          alpha-beta pruning (see NegamaxSearch). Each
+//          move is given a time and node budget, and the
+//          move from the deepest search that finished
+//          within the budget is played.
+//
+//          The search can use more than one thread. The
+//          extra threads run their own searches of the
+//          same board at the same time (Lazy SMP), some
+//          of them starting one move deeper. They all
+//          share one TranspositionTable, so the boards
+//          one thread has searched are skipped by the
+//          others. The main thread's result is played,
+//          and the helpers are stopped once it finishes.
+//
+//          When pondering is turned on, the AI keeps
+//          thinking while it waits for the opponent. It
+//          guesses the opponent's reply (the next move of
+//          its principal variation) and searches the
+//          board that reply would make on a background
+//          thread. If it is given that board next (a
+//          ponder hit),
+//          that search is already well under way, and its
+//          move is played as soon as the time budget,
+//          counted from when pondering began, is used up.
+//          Otherwise (a miss) it is stopped, and the usual
+//          search runs, with a transposition table filled
+//          by the pondering.
+//
+//------------------------------------------------------
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DifficultyThree extends GameAI
+{
+	// the time budgets used by the game's difficulty levels, in milliseconds
+	public static final long INTERACTIVE_TIME_BUDGET = 40; // keeps the game responsive for a human player
+	public static final long ANALYSIS_TIME_BUDGET = 3000; // for when playing strength matters more than speed
+	public static final int MAX_DEPTH = 127; // deep enough that only the budget limits the search
+
+	private static final int TABLE_SIZE_BITS = 16; // the transposition table has 2^16 buckets
+	private static final long HELPER_KEEP_ALIVE = 10; // seconds an idle helper thread waits before it ends
+	private static final long MAX_PONDER_TIME = 600000; // the longest the AI ponders before giving up, in milliseconds
+
+	private BoardArray board; // a copy of the board given to makeMove, which the searches copy from
+	private TranspositionTable table;
+	private int maxDepth; // the furthest number of moves the search will look ahead
+	private long timeBudget; // the time allowed for each move, in milliseconds
+	private long nodeBudget; // the number of boards allowed to be visited for each move, or 0 for no limit
+	private NegamaxSearch mainSearch; // the search run on the calling thread, whose move is played
+	private NegamaxSearch[] helperSearches; // the searches run on the helper threads
+	private Future<?>[] helperResults;
+	private ThreadPoolExecutor helperPool; // null when the search only uses the calling thread
+	private AtomicBoolean stopSignal; // set to stop the helper searches once the main search is done
+	private long lastNodes; // the number of boards visited by every thread during the most recent move
+	private long lastElapsed; // the time taken by the most recent move, in nanoseconds
+	private volatile boolean pondering; // true if the AI thinks while waiting for the opponent's move
+	private ThreadPoolExecutor ponderPool; // runs the main search while pondering, created when first needed
+	private Future<Integer> ponderResult; // the move found by the search of the guessed board, or null
+	private BoardArray ponderBoard; // the board after the AI's move and the guessed reply
+	private Status token; // the AI's token in the current game
+	private long ponderStart; // the System.nanoTime() value when pondering began
+	private long ponderHits;
+	private long ponderMisses;
+
+	// generic constructor
+	public DifficultyThree() throws IOException
+	{
+		this(MAX_DEPTH, INTERACTIVE_TIME_BUDGET, 0, WindowEvaluator.forObjective(BoardArray.DEFAULT_OBJECTIVE), 1);
+	}
+
+	public DifficultyThree(int maxDepth, long timeBudget, long nodeBudget, BoardEvaluator evaluator, int threads)
+	{
+		this(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE, maxDepth, timeBudget,
+				nodeBudget, evaluator, threads);
+	}
+
+	public DifficultyThree(int width, int height, int objective, int maxDepth, long timeBudget, long nodeBudget,
+			BoardEvaluator evaluator, int threads)
+	{
+		this.board = new BoardArray(width, height, objective);
+		this.maxDepth = Math.min(maxDepth, MAX_DEPTH);
+		this.timeBudget = timeBudget;
+		this.nodeBudget = nodeBudget;
+		this.table = new TranspositionTable(TABLE_SIZE_BITS);
+		this.stopSignal = new AtomicBoolean();
+		this.mainSearch = new NegamaxSearch(this.table, evaluator, 0, this.stopSignal);
+		this.helperSearches = new NegamaxSearch[Math.max(threads, 1) - 1];
+		this.helperResults = new Future<?>[this.helperSearches.length];
+
+		for (int i = 0; i < this.helperSearches.length; i++)
+		{
+			this.helperSearches[i] = new NegamaxSearch(this.table, evaluator, i + 1, this.stopSignal);
+		}
+
+		if (this.helperSearches.length > 0)
+		{
+			// the helper threads are daemons which end when idle, so an abandoned AI does not keep them alive
+			this.helperPool = new ThreadPoolExecutor(this.helperSearches.length, this.helperSearches.length,
+					HELPER_KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+						Thread thread = new Thread(runnable, "DifficultyThree helper");
+						thread.setDaemon(true);
+						return thread;
+					});
+			this.helperPool.allowCoreThreadTimeOut(true);
+		}
+	}
+
+	// every search, including the helpers' and pondering, looks up boards near the end of the game in the table
+	@Override
+	public synchronized void setEndgameTable(EndgameTable table)
+	{
+		this.mainSearch.setEndgameTable(table);
+
+		for (NegamaxSearch search : this.helperSearches)
+		{
+			search.setEndgameTable(table);
+		}
+	}
+
+	// empties the shared table and every search's move ordering, stopping any pondering first
+	@Override
+	public synchronized void clear()
+	{
+		stopPondering();
+		this.table.clear();
+		this.mainSearch.clearHistory();
+
+		for (NegamaxSearch search : this.helperSearches)
+		{
+			search.clearHistory();
+		}
+	}
+
+	// various getters for the class, describing the most recent move
+	public TranspositionTable getTranspositionTable()
+	{
+		return this.table;
+	}
+
+	public int getCompletedDepth()
+	{
+		return this.mainSearch.getCompletedDepth();
+	}
+
+	public long getNodes()
+	{
+		return this.lastNodes;
+	}
+
+	// the share of the main search's cutoffs that came from the first move tried (see MoveOrderer)
+	public double getFirstMoveCutoffRate()
+	{
+		return this.mainSearch.getFirstMoveCutoffRate();
+	}
+
+	public int getThreads()
+	{
+		return this.helperSearches.length + 1;
+	}
+
+	// the number of boards visited per second by all threads together during the most recent move
+	public long getNodesPerSecond()
+	{
+		return (this.lastElapsed > 0) ? this.lastNodes * 1000000000L / this.lastElapsed : 0;
+	}
+
+	public long getPonderHits()
+	{
+		return this.ponderHits;
+	}
+
+	public long getPonderMisses()
+	{
+		return this.ponderMisses;
+	}
+
+	// turning pondering off also stops any pondering under way, once a move being made has finished
+	@Override
+	public synchronized void setPondering(boolean pondering)
+	{
+		this.pondering = pondering;
+
+		if (!pondering)
+		{
+			stopPondering();
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// makeMove
+	//
+	// PURPOSE: The purpose of this method is to let the AI
+	// search for the best column to play its token. The
+	// board is copied into the AI's own, which each of its
+	// searches starts from, and each possible move is then
+	// searched, unless the board is the one the AI has been
+	// pondering.
+	//
+	// PARAMETERS:
+	// - position: the board, where it is the AI's turn.
+	//
+	// RETURNS: chosenColumn, an int that tells the calling
+	// location which column was selected by the method.
+	//
+	// ------------------------------------------------------
+	public synchronized int makeMove(Position position)
+	{
+		int chosenColumn = -1;
+
+		if (!position.isSameSize(this.board))
+		{
+			this.board = new BoardArray(position.getWidth(), position.getHeight(), position.getObjective());
+		}
+
+		position.copyTo(this.board);
+		this.token = position.getTurn();
+
+		// a hit if the opponent played the guessed reply, and nothing else about the board has changed
+		if (this.ponderResult != null && this.ponderBoard.getMoveCount() == this.board.getMoveCount()
+				&& this.ponderBoard.getHash() == this.board.getHash())
+		{
+			chosenColumn = finishPondering();
+		}
+		else if (this.ponderResult != null)
+		{
+			this.ponderMisses++;
+			stopPondering();
+		}
+
+		if (chosenColumn == -1)
+		{
+			chosenColumn = search(this.maxDepth, System.nanoTime() + this.timeBudget * 1000000L, this.nodeBudget);
+		}
+
+		if (this.pondering && !Thread.currentThread().isInterrupted())
+		{
+			startPondering(chosenColumn);
+		}
+
+		return chosenColumn;
+	}
+
+	// ------------------------------------------------------
+	//
+	// startPondering
+	//
+	// PURPOSE: The purpose of this method is to guess the
+	// opponent's reply to the AI's move, and start the main
+	// search on the board that reply would make, on the
+	// ponder thread. The guess is the next move of the
+	// principal variation, or failing that, the best move
+	// stored in the transposition table. There is nothing
+	// to ponder if the game is over, or would be after the
+	// guessed reply.
+	//
+	// PARAMETERS:
+	// - chosenColumn: the AI's move.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void startPondering(int chosenColumn)
+	{
+		Status opponent = (this.token == Status.ONE) ? Status.TWO : Status.ONE;
+		int guess = this.mainSearch.getPrincipalMove(1);
+
+		if (this.ponderBoard == null || !this.ponderBoard.isSameSize(this.board))
+		{
+			this.ponderBoard = new BoardArray(this.board.getWidth(), this.board.getHeight(),
+					this.board.getObjective());
+		}
+
+		this.ponderBoard.copyFrom(this.board);
+		this.ponderBoard.dropToken(chosenColumn, this.token);
+
+		if (guess == -1)
+		{
+			long entry = this.table.probe(this.ponderBoard.getCanonicalHash());
+
+			if (entry != TranspositionTable.EMPTY)
+			{
+				guess = this.ponderBoard.canonicalMove(TranspositionTable.getMove(entry));
+			}
+		}
+
+		if (guess >= 0 && !this.ponderBoard.isWin(this.token) && !this.ponderBoard.isFull()
+				&& this.ponderBoard.canPlay(guess))
+		{
+			this.ponderBoard.dropToken(guess, opponent);
+
+			if (!this.ponderBoard.isWin(opponent) && !this.ponderBoard.isFull())
+			{
+				if (this.ponderPool == null)
+				{
+					// a daemon which ends when idle, like the helper threads
+					this.ponderPool = new ThreadPoolExecutor(1, 1, HELPER_KEEP_ALIVE, TimeUnit.SECONDS,
+							new LinkedBlockingQueue<Runnable>(), runnable -> {
+								Thread thread = new Thread(runnable, "DifficultyThree ponder");
+								thread.setDaemon(true);
+								return thread;
+							});
+					this.ponderPool.allowCoreThreadTimeOut(true);
+				}
+
+				long deadline = System.nanoTime() + MAX_PONDER_TIME * 1000000L;
+
+				this.ponderStart = System.nanoTime();
+				this.stopSignal.set(false);
+				this.ponderResult = this.ponderPool.submit(() -> this.mainSearch.search(this.ponderBoard, this.token,
+						this.maxDepth, deadline, 0));
+			}
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// finishPondering
+	//
+	// PURPOSE: The purpose of this method is to take the
+	// move from the pondering search after a ponder hit.
+	// The search is left to run until the AI's time budget,
+	// counted from when pondering began, is used up (or the
+	// search finishes by itself), then it is stopped.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: the move found, or -1 if the search did not
+	// finish even its first iteration (or this thread was
+	// interrupted), so the usual search should be run.
+	//
+	// ------------------------------------------------------
+	private int finishPondering()
+	{
+		long remaining = this.ponderStart + this.timeBudget * 1000000L - System.nanoTime();
+
+		this.ponderHits++;
+
+		try
+		{
+			this.ponderResult.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+		}
+		catch (TimeoutException | ExecutionException e)
+		{
+			// usually the time budget is used up before the search finishes, and it is simply stopped
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		int chosenColumn = stopPondering();
+
+		if (this.mainSearch.getCompletedDepth() == 0 || Thread.currentThread().isInterrupted())
+		{
+			chosenColumn = -1;
+		}
+
+		this.lastNodes = this.mainSearch.getNodes();
+		this.lastElapsed = System.nanoTime() - this.ponderStart;
+
+		return chosenColumn;
+	}
+
+	// ------------------------------------------------------
+	//
+	// stopPondering
+	//
+	// PURPOSE: The purpose of this method is to stop the
+	// pondering search, if there is one, and wait for it to
+	// end, so that the main search can be used again. It
+	// waits even if this thread is interrupted, keeping the
+	// interrupt for the caller.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: the move found by the pondering search, or -1
+	// if there was none.
+	//
+	// ------------------------------------------------------
+	private int stopPondering()
+	{
+		int chosenColumn = -1;
+
+		if (this.ponderResult != null)
+		{
+			boolean interrupted = false;
+			boolean waiting = true;
+
+			this.stopSignal.set(true);
+
+			while (waiting)
+			{
+				try
+				{
+					chosenColumn = this.ponderResult.get();
+					waiting = false;
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+				}
+				catch (ExecutionException e)
+				{
+					e.printStackTrace();
+					waiting = false;
+				}
+			}
+
+			this.ponderResult = null;
+
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		return chosenColumn;
+	}
+
+	// ------------------------------------------------------
+	//
+	// search
+	//
+	// PURPOSE: The purpose of this method is to search the
+	// current board on the calling thread, with the helper
+	// threads (if any) searching the same board alongside
+	// it. Once the main search is done, the helpers are
+	// stopped and waited for, so that none of them are
+	// still using the board when the next move is made.
+	//
+	// PARAMETERS:
+	// - depth: the furthest number of moves to look ahead.
+	// - deadline: the System.nanoTime() value at which the
+	// search must stop.
+	// - nodes: the number of boards the main search may
+	// visit, or 0 for no limit.
+	//
+	// RETURNS: the chosen column.
+	//
+	// ------------------------------------------------------
+	private int search(int depth, long deadline, long nodes)
+	{
+		long start = System.nanoTime();
+
+		this.stopSignal.set(false);
+
+		for (int i = 0; i < this.helperSearches.length; i++)
+		{
+			NegamaxSearch helper = this.helperSearches[i];
+
+			this.helperResults[i] = this.helperPool.submit(() -> helper.search(this.board, this.token, depth,
+					deadline, 0));
+		}
+
+		int chosenColumn = this.mainSearch.search(this.board, this.token, depth, deadline, nodes);
+
+		this.stopSignal.set(true);
+		this.lastNodes = this.mainSearch.getNodes();
+
+		for (int i = 0; i < this.helperSearches.length; i++)
+		{
+			try
+			{
+				this.helperResults[i].get();
+			}
+			catch (Exception e)
+			{
+				e.printStackTrace();
+			}
+
+			this.lastNodes += this.helperSearches[i].getNodes();
+		}
+
+		this.lastElapsed = System.nanoTime() - start;
+
+		return chosenColumn;
+	}
+
+	// ------------------------------------------------------
+	//
+	// measureSpeedup
+	//
+	// PURPOSE: The purpose of this method is to compare how
+	// long the given board takes to search to the given
+	// depth using only the calling thread, against how long
+	// it takes using all of this AI's threads. The
+	// transposition table is emptied before each search, so
+	// that neither search benefits from the other.
+	//
+	// PARAMETERS:
+	// - position: the board to search.
+	// - depth: the depth to search to.
+	//
+	// RETURNS: the single-thread time divided by the
+	// multi-thread time; above 1 means the threads helped.
+	//
+	// ------------------------------------------------------
+	public synchronized double measureSpeedup(Position position, int depth)
+	{
+		stopPondering();
+		position.copyTo(this.board);
+		this.token = position.getTurn();
+		this.table.clear();
+
+		long start = System.nanoTime();
+
+		this.stopSignal.set(false);
+		this.mainSearch.search(this.board, this.token, depth, Long.MAX_VALUE, 0);
+
+		long singleThreadTime = System.nanoTime() - start;
+
+		this.table.clear();
+		search(depth, Long.MAX_VALUE, 0);
+
+		return (double) singleThreadTime / Math.max(this.lastElapsed, 1);
+	}
+}
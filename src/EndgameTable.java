@@ -0,0 +1,463 @@
+//------------------------------------------------------
+//
+// CLASS: EndgameTable
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to look up the
+//          exact scores of boards near the end of the game
+//          (see PerfectSolver for how scores are counted),
+//          from a file built ahead of time by
+//          EndgameTableBuilder. Every board in the file has
+//          at most a given number of empty cells, so a
+//          search that reaches such a board can stop there
+//          with the exact score instead of searching on.
+//
+//          Unlike an OpeningBook, the boards are not found
+//          with a binary search. They are placed by a
+//          minimal perfect hash: the boards are split into
+//          buckets by one hash of their keys, and each
+//          bucket is given a displacement, chosen when the
+//          file is built, that sends its boards to slots no
+//          other board uses. A lookup reads the bucket's
+//          displacement, works out the slot and compares
+//          the key stored there, whatever the size of the
+//          table. A bucket holding a single board stores
+//          its slot directly, as -(slot + 1).
+//
+//          The file starts with a header of seven ints: a
+//          magic number, the board's width, height and
+//          objective, the largest number of empty cells of
+//          a board in the table, the number of boards and
+//          the number of buckets. Then come the buckets'
+//          displacements as ints, then the canonical
+//          position key (see BoardArray) in each slot, as
+//          longs, then the score in each slot, as a single
+//          byte. Like the opening book, the file is
+//          memory-mapped, and as it is only ever read, one
+//          table can be shared by every AI and thread.
+//
+//------------------------------------------------------
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class EndgameTable
+{
+	public static final String DEFAULT_PATH = "./endgame-table.bin";
+	public static final int MAGIC = 0x43344547; // "C4EG"
+	public static final int NOT_FOUND = Integer.MIN_VALUE; // returned by lookup for a board not in the table
+
+	private static final int HEADER_SIZE = 28; // bytes
+	private static final int KEYS_PER_BUCKET = 2; // the average number of boards in a bucket
+	private static final long DISPLACEMENT_STEP = 0x9E3779B97F4A7C15L; // spreads the displacements' hashes apart
+
+	private static EndgameTable shared; // the table read from DEFAULT_PATH, once forSize has tried to read it
+	private static IOException sharedError; // why DEFAULT_PATH could not be read, if it could not
+	private static boolean sharedRead;
+
+	private MappedByteBuffer buffer;
+	private int width;
+	private int height;
+	private int objective;
+	private int maxEmpty; // the largest number of empty cells of a board in the table
+	private int count; // the number of boards in the table
+	private int buckets;
+	private int keysStart; // the offset of the first slot's key in the file
+	private int scoresStart; // the offset of the first slot's score in the file
+
+	// generic constructor, which maps the given table file
+	public EndgameTable(String path) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ))
+		{
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		if (this.buffer.capacity() < HEADER_SIZE || this.buffer.getInt(0) != MAGIC)
+		{
+			throw new IOException("Not an endgame table: " + path);
+		}
+
+		this.width = this.buffer.getInt(4);
+		this.height = this.buffer.getInt(8);
+		this.objective = this.buffer.getInt(12);
+		this.maxEmpty = this.buffer.getInt(16);
+		this.count = this.buffer.getInt(20);
+		this.buckets = this.buffer.getInt(24);
+		this.keysStart = HEADER_SIZE + this.buckets * 4;
+		this.scoresStart = this.keysStart + this.count * 8;
+
+		if (this.buffer.capacity() != this.scoresStart + this.count)
+		{
+			throw new IOException("The endgame table is the wrong length: " + path);
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// forSize
+	//
+	// PURPOSE: The purpose of this method is to find the
+	// table the AIs play with. The file at DEFAULT_PATH is
+	// mapped the first time it is asked for and shared from
+	// then on. There is no table if there is no such file,
+	// and none for a board of a size other than the file's.
+	// A file that is there but cannot be read is reported
+	// to every caller, without trying to read it again.
+	//
+	// PARAMETERS:
+	// - width: the number of columns on the board.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	//
+	// RETURNS: the table, or null if there is none for the
+	// board.
+	//
+	// ------------------------------------------------------
+	public static synchronized EndgameTable forSize(int width, int height, int objective) throws IOException
+	{
+		if (!sharedRead)
+		{
+			sharedRead = true;
+
+			try
+			{
+				shared = new EndgameTable(DEFAULT_PATH);
+			}
+			catch (NoSuchFileException e)
+			{
+				shared = null;
+			}
+			catch (IOException e)
+			{
+				sharedError = e;
+			}
+		}
+
+		if (sharedError != null)
+		{
+			throw new IOException("Could not read the endgame table: " + sharedError.getMessage(), sharedError);
+		}
+
+		EndgameTable table = null;
+
+		if (shared != null && shared.width == width && shared.height == height && shared.objective == objective)
+		{
+			table = shared;
+		}
+
+		return table;
+	}
+
+	// various getters for the class
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	public int getHeight()
+	{
+		return this.height;
+	}
+
+	public int getObjective()
+	{
+		return this.objective;
+	}
+
+	public int getMaxEmpty()
+	{
+		return this.maxEmpty;
+	}
+
+	public int size()
+	{
+		return this.count;
+	}
+
+	// ------------------------------------------------------
+	//
+	// probe
+	//
+	// PURPOSE: The purpose of this method is to find the
+	// score of the given board, if the table covers it. A
+	// board of another size, or with too many empty cells
+	// to be in the table, is turned away without hashing
+	// its key.
+	//
+	// PARAMETERS:
+	// - board: the board to look up, where the player to
+	// move is worked out from the number of tokens.
+	//
+	// RETURNS: the score of the board for the player to
+	// move, or NOT_FOUND if the board is not in the table.
+	//
+	// ------------------------------------------------------
+	public int probe(BoardArray board)
+	{
+		int score = NOT_FOUND;
+
+		if (board.getWidth() * board.getHeight() - board.getMoveCount() <= this.maxEmpty
+				&& board.getWidth() == this.width && board.getHeight() == this.height
+				&& board.getObjective() == this.objective)
+		{
+			score = lookup(board.getCanonicalPositionKey());
+		}
+
+		return score;
+	}
+
+	// ------------------------------------------------------
+	//
+	// lookup
+	//
+	// PURPOSE: The purpose of this method is to find the
+	// score of the board with the given canonical key. The
+	// key's bucket gives the slot the board would be in,
+	// and the key stored in that slot tells whether it is
+	// there, so a board that is not in the table is never
+	// given another board's score.
+	//
+	// PARAMETERS:
+	// - key: the canonical position key of the board.
+	//
+	// RETURNS: the score of the board for the player to
+	// move, or NOT_FOUND if the board is not in the table.
+	//
+	// ------------------------------------------------------
+	public int lookup(long key)
+	{
+		int score = NOT_FOUND;
+
+		if (this.count > 0)
+		{
+			int displacement = this.buffer.getInt(HEADER_SIZE + bucketOf(key, this.buckets) * 4);
+			int slot = (displacement < 0) ? -displacement - 1 : slotOf(key, displacement, this.count);
+
+			if (this.buffer.getLong(this.keysStart + slot * 8) == key)
+			{
+				score = this.buffer.get(this.scoresStart + slot);
+			}
+		}
+
+		return score;
+	}
+
+	// ------------------------------------------------------
+	//
+	// write
+	//
+	// PURPOSE: The purpose of this method is to build the
+	// perfect hash for the given boards and write a table
+	// file in the format described above. The buckets with
+	// the most boards are placed first, while most slots
+	// are still free, by trying one displacement after
+	// another until all of a bucket's boards land in free
+	// slots. The buckets of a single board then fill the
+	// slots that are left, in order.
+	//
+	// PARAMETERS:
+	// - path: the file to write.
+	// - width: the number of columns on the board.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	// - maxEmpty: the largest number of empty cells of a
+	// board in the table.
+	// - keys: the canonical position keys, in ascending
+	// order, with no key repeated.
+	// - scores: the score of each board, in the same order.
+	// - count: the number of boards to write.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public static void write(String path, int width, int height, int objective, int maxEmpty, long[] keys,
+			byte[] scores, int count) throws IOException
+	{
+		int buckets = Math.max(1, count / KEYS_PER_BUCKET);
+
+		if (HEADER_SIZE + buckets * 4L + count * 9L > Integer.MAX_VALUE)
+		{
+			throw new IOException("Too many boards for one endgame table: " + count);
+		}
+
+		for (int i = 1; i < count; i++)
+		{
+			if (keys[i] <= keys[i - 1])
+			{
+				throw new IllegalArgumentException("The keys must be in ascending order, with none repeated");
+			}
+		}
+
+		// group the boards by bucket, with a counting sort
+		int[] bucketStart = new int[buckets + 1];
+		int[] members = new int[count]; // the boards' indexes, grouped by bucket
+		int[] next = new int[buckets];
+
+		for (int i = 0; i < count; i++)
+		{
+			bucketStart[bucketOf(keys[i], buckets) + 1]++;
+		}
+
+		for (int bucket = 0; bucket < buckets; bucket++)
+		{
+			bucketStart[bucket + 1] += bucketStart[bucket];
+			next[bucket] = bucketStart[bucket];
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			members[next[bucketOf(keys[i], buckets)]++] = i;
+		}
+
+		// order the buckets from the most boards to the fewest, with another counting sort
+		int largest = 0;
+
+		for (int bucket = 0; bucket < buckets; bucket++)
+		{
+			largest = Math.max(largest, bucketStart[bucket + 1] - bucketStart[bucket]);
+		}
+
+		int[] sizeStart = new int[largest + 2];
+		int[] order = new int[buckets];
+
+		for (int bucket = 0; bucket < buckets; bucket++)
+		{
+			sizeStart[largest - (bucketStart[bucket + 1] - bucketStart[bucket]) + 1]++;
+		}
+
+		for (int size = 0; size <= largest; size++)
+		{
+			sizeStart[size + 1] += sizeStart[size];
+		}
+
+		for (int bucket = 0; bucket < buckets; bucket++)
+		{
+			order[sizeStart[largest - (bucketStart[bucket + 1] - bucketStart[bucket])]++] = bucket;
+		}
+
+		int[] displacements = new int[buckets];
+		int[] slots = new int[count]; // the slot of each board
+		boolean[] taken = new boolean[count];
+		int freeSlot = 0; // every slot before this one is taken, once the single boards are being placed
+
+		for (int bucket : order)
+		{
+			int start = bucketStart[bucket];
+			int size = bucketStart[bucket + 1] - start;
+
+			if (size > 1)
+			{
+				int displacement = -1;
+				boolean fits = false;
+
+				// try displacements until every board of the bucket lands in a slot that is still free
+				while (!fits)
+				{
+					int placed = 0;
+
+					displacement++;
+					fits = true;
+
+					for (int i = 0; i < size && fits; i++)
+					{
+						int slot = slotOf(keys[members[start + i]], displacement, count);
+
+						fits = !taken[slot];
+
+						if (fits)
+						{
+							taken[slot] = true;
+							slots[members[start + i]] = slot;
+							placed++;
+						}
+					}
+
+					// free the slots of a displacement that did not fit
+					for (int i = 0; i < placed && !fits; i++)
+					{
+						taken[slots[members[start + i]]] = false;
+					}
+				}
+
+				displacements[bucket] = displacement;
+			}
+			else if (size == 1)
+			{
+				while (taken[freeSlot])
+				{
+					freeSlot++;
+				}
+
+				taken[freeSlot] = true;
+				slots[members[start]] = freeSlot;
+				displacements[bucket] = -freeSlot - 1;
+			}
+		}
+
+		long[] slotKeys = new long[count];
+		byte[] slotScores = new byte[count];
+
+		for (int i = 0; i < count; i++)
+		{
+			slotKeys[slots[i]] = keys[i];
+			slotScores[slots[i]] = scores[i];
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path))))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(width);
+			out.writeInt(height);
+			out.writeInt(objective);
+			out.writeInt(maxEmpty);
+			out.writeInt(count);
+			out.writeInt(buckets);
+
+			for (int bucket = 0; bucket < buckets; bucket++)
+			{
+				out.writeInt(displacements[bucket]);
+			}
+
+			for (int slot = 0; slot < count; slot++)
+			{
+				out.writeLong(slotKeys[slot]);
+			}
+
+			out.write(slotScores, 0, count);
+		}
+	}
+
+	// the bucket of the given key
+	private static int bucketOf(long key, int buckets)
+	{
+		return (int) Long.remainderUnsigned(mix(key), buckets);
+	}
+
+	// the slot the given key is sent to by the given displacement
+	private static int slotOf(long key, int displacement, int count)
+	{
+		return (int) Long.remainderUnsigned(mix(key + (displacement + 1) * DISPLACEMENT_STEP), count);
+	}
+
+	// scrambles the bits of the given value, so that keys differing in a few bits hash far apart (SplitMix64's finalizer)
+	private static long mix(long value)
+	{
+		long z = value;
+
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,342 @@
+//------------------------------------------------------
+//
+// CLASS: EndgameTableBuilder
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to build an
+//          endgame table file (see EndgameTable) from the
+//          command line. Every board that can be reached
+//          by legal play, where the game is not yet over
+//          and at most the given number of cells are
+//          empty, is found first. Only one of a board and
+//          its mirror image is kept.
+//
+//          The boards are then solved backwards from the
+//          end of the game (retrograde analysis), rather
+//          than by searching each one: the boards with one
+//          empty cell are solved first, then those with
+//          two, and so on. Every move from a board either
+//          ends the game or leads to a board with one
+//          fewer empty cell, which has already been solved,
+//          so each board's score is found from its moves
+//          alone, and each board is only looked at once.
+//
+//          Finding every board near the end of the game is
+//          only practical for small boards, or for the
+//          boards that follow a given opening, written as
+//          a string of columns from 1 to 7 (as for
+//          OpeningBookBuilder), since the builder has to
+//          play through every board on the way there.
+//
+//          Usage: java EndgameTableBuilder <max empty cells>
+//                 [<output file>] [<opening>]
+//
+//------------------------------------------------------
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class EndgameTableBuilder
+{
+	private BoardArray board;
+	private int cells; // the number of cells on the board
+	private int maxEmpty; // the largest number of empty cells of a board in the table
+	private HashSet<Long> seen; // the canonical position keys of every board found, in the table or not
+	private long[][] levelKeys; // the keys of the boards in the table, by their number of empty cells
+	private byte[][] levelScores; // the score of each board in levelKeys, once its level has been solved
+	private int[] levelCounts; // the number of boards found with each number of empty cells
+	private long start; // the System.nanoTime() value when building started
+
+	// generic constructor, for the usual board
+	public EndgameTableBuilder(int maxEmpty)
+	{
+		this(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE, maxEmpty);
+	}
+
+	public EndgameTableBuilder(int width, int height, int objective, int maxEmpty)
+	{
+		this.board = new BoardArray(width, height, objective);
+		this.cells = width * height;
+		this.maxEmpty = Math.min(maxEmpty, this.cells);
+		this.seen = new HashSet<Long>();
+		this.levelKeys = new long[this.maxEmpty + 1][16];
+		this.levelScores = new byte[this.maxEmpty + 1][];
+		this.levelCounts = new int[this.maxEmpty + 1];
+
+		// a key is shifted up a byte to be sorted with its score (see build), so it must fit in 56 bits
+		if (width * (height + 1) > Long.SIZE - Byte.SIZE)
+		{
+			throw new IllegalArgumentException("Endgame tables need a board of at most 56 bits");
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1)
+		{
+			System.out.println("Usage: java EndgameTableBuilder <max empty cells> [<output file>] [<opening>]");
+		}
+		else
+		{
+			String path = (args.length > 1) ? args[1] : EndgameTable.DEFAULT_PATH;
+			String opening = (args.length > 2) ? args[2] : "";
+
+			new EndgameTableBuilder(Integer.parseInt(args[0])).build(path, opening);
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// build
+	//
+	// PURPOSE: The purpose of this method is to play the
+	// given opening, find every board reachable from it
+	// with few enough empty cells, solve them one level at
+	// a time, then write the table. As in
+	// OpeningBookBuilder, each key is shifted up a byte with
+	// its score underneath, so sorting the combined longs
+	// sorts the boards by key.
+	//
+	// PARAMETERS:
+	// - path: the file to write the table to.
+	// - opening: the columns of the opening, from 1 to 7.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void build(String path, String opening) throws IOException
+	{
+		Status token = Status.ONE;
+
+		for (int i = 0; i < opening.length(); i++)
+		{
+			this.board.dropToken(opening.charAt(i) - '1', token);
+			token = (token == Status.ONE) ? Status.TWO : Status.ONE;
+		}
+
+		this.start = System.nanoTime();
+		addBoards(token);
+		System.out.println(this.seen.size() + " boards found in " + elapsedSeconds() + "s");
+		this.seen = null; // only the boards in the table are needed from here on
+
+		int count = 0;
+
+		for (int empty = 1; empty <= this.maxEmpty; empty++)
+		{
+			solveLevel(empty);
+			count += this.levelCounts[empty];
+			System.out.println(this.levelCounts[empty] + " boards with " + empty + " empty cells solved in "
+					+ elapsedSeconds() + "s");
+		}
+
+		long[] entries = new long[count];
+		int next = 0;
+
+		for (int empty = 1; empty <= this.maxEmpty; empty++)
+		{
+			for (int i = 0; i < this.levelCounts[empty]; i++)
+			{
+				entries[next++] = (this.levelKeys[empty][i] << 8) | (this.levelScores[empty][i] & 0xFF);
+			}
+		}
+
+		Arrays.sort(entries);
+
+		long[] keys = new long[count];
+		byte[] scores = new byte[count];
+
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = entries[i] >>> 8;
+			scores[i] = (byte) entries[i];
+		}
+
+		EndgameTable.write(path, this.board.getWidth(), this.board.getHeight(), this.board.getObjective(),
+				this.maxEmpty, keys, scores, count);
+		System.out.println("Wrote " + count + " boards to " + path);
+	}
+
+	// ------------------------------------------------------
+	//
+	// addBoards
+	//
+	// PURPOSE: The purpose of this method is to record the
+	// current board, if it has not been seen before, then
+	// do the same for every board reached by one more move
+	// that does not end the game. A board that has been
+	// seen before is not played through again, since the
+	// boards after it have already been found.
+	//
+	// PARAMETERS:
+	// - token: the token of the player to move.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void addBoards(Status token)
+	{
+		long key = this.board.getCanonicalPositionKey();
+
+		if (this.seen.add(key))
+		{
+			int empty = this.cells - this.board.getMoveCount();
+			Status opponent = (token == Status.ONE) ? Status.TWO : Status.ONE;
+
+			if (empty <= this.maxEmpty)
+			{
+				if (this.levelCounts[empty] == this.levelKeys[empty].length)
+				{
+					this.levelKeys[empty] = Arrays.copyOf(this.levelKeys[empty], this.levelCounts[empty] * 2);
+				}
+
+				this.levelKeys[empty][this.levelCounts[empty]++] = key;
+			}
+
+			for (int col = 0; col < this.board.getWidth(); col++)
+			{
+				if (this.board.canPlay(col))
+				{
+					this.board.dropToken(col, token);
+
+					if (!this.board.isWin(token) && !this.board.isFull())
+					{
+						addBoards(opponent);
+					}
+
+					this.board.undoToken(col);
+				}
+			}
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// solveLevel
+	//
+	// PURPOSE: The purpose of this method is to score every
+	// board with the given number of empty cells, once the
+	// boards with one fewer have been scored. Each move is
+	// scored as PerfectSolver would: a win straight away
+	// scores by how soon it comes, a move that fills the
+	// board is a draw, and any other move scores the
+	// negation of the next board's score, looked up in the
+	// level below. The board's score is that of its best
+	// move.
+	//
+	// PARAMETERS:
+	// - empty: the number of empty cells of the boards to
+	// solve.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void solveLevel(int empty)
+	{
+		long[] keys = this.levelKeys[empty];
+		int count = this.levelCounts[empty];
+		byte[] scores = new byte[count];
+
+		Arrays.sort(keys, 0, count);
+
+		for (int i = 0; i < count; i++)
+		{
+			setBoard(keys[i]);
+
+			int moves = this.board.getMoveCount();
+			Status token = (moves % 2 == 0) ? Status.ONE : Status.TWO;
+			Status opponent = (token == Status.ONE) ? Status.TWO : Status.ONE;
+			int best = Integer.MIN_VALUE;
+
+			for (int col = 0; col < this.board.getWidth(); col++)
+			{
+				if (this.board.canPlay(col))
+				{
+					int score;
+
+					this.board.dropToken(col, token);
+
+					if (this.board.isWin(token))
+					{
+						score = (this.cells + 1 - moves) / 2;
+					}
+					else if (this.board.isFull())
+					{
+						score = 0;
+					}
+					else
+					{
+						score = -findScore(empty - 1, this.board.getCanonicalPositionKey());
+					}
+
+					this.board.undoToken(col);
+					best = Math.max(best, score);
+				}
+			}
+
+			scores[i] = (byte) best;
+		}
+
+		this.levelScores[empty] = scores;
+	}
+
+	// the score of the board with the given key, from the solved level with the given number of empty cells
+	private int findScore(int empty, long key)
+	{
+		int index = Arrays.binarySearch(this.levelKeys[empty], 0, this.levelCounts[empty], key);
+
+		// every board after a move from a board in the table is in the table too, unless the move ended the game
+		if (index < 0)
+		{
+			throw new IllegalStateException("A board with " + empty + " empty cells was not found");
+		}
+
+		return this.levelScores[empty][index];
+	}
+
+	// ------------------------------------------------------
+	//
+	// setBoard
+	//
+	// PURPOSE: The purpose of this method is to set up the
+	// board with the given position key (see BoardArray),
+	// by emptying it and dropping each column's tokens from
+	// the bottom up. The highest set bit of each column in
+	// the key is just above its top token, and Status.ONE's
+	// tokens are the set bits below it.
+	//
+	// PARAMETERS:
+	// - key: the position key, for Status.ONE moving first.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void setBoard(long key)
+	{
+		int columnBits = this.board.getHeight() + 1;
+		long columnMask = (1L << columnBits) - 1;
+
+		while (this.board.getMoveCount() > 0)
+		{
+			this.board.undoToken(this.board.getLastMove());
+		}
+
+		for (int col = 0; col < this.board.getWidth(); col++)
+		{
+			long column = (key >>> (col * columnBits)) & columnMask;
+			int height = Long.SIZE - 1 - Long.numberOfLeadingZeros(column);
+
+			for (int row = 0; row < height; row++)
+			{
+				this.board.dropToken(col, ((column >>> row) & 1) != 0 ? Status.ONE : Status.TWO);
+			}
+		}
+	}
+
+	// the number of whole seconds since building started
+	private long elapsedSeconds()
+	{
+		return (System.nanoTime() - this.start) / 1000000000L;
+	}
+}
@@ -12,9 +12,28 @@
 //          various difficulty levels may
 //          polymorphically call makeMove().
 //
+//          The AIs read the game's board through the
+//          Position given to makeMove, rather than keeping
+//          a copy of their own in step with it.
+//
 //------------------------------------------------------
 
-public abstract class GameAI extends BoardArray implements ConnectPlayer
+public abstract class GameAI implements ConnectPlayer
 {
-	public abstract int makeMove(int lastCol); // the game AI's equivalent of the player's addPiece() method
+	public abstract int makeMove(Position position); // the game AI's equivalent of the player's addPiece() method
+
+	// lets an AI that searches keep thinking while waiting for the opponent's move; the others ignore it
+	public void setPondering(boolean pondering)
+	{
+	}
+
+	// gives an AI that looks ahead the exact scores of boards near the end of the game, or takes them away with null
+	public void setEndgameTable(EndgameTable table)
+	{
+	}
+
+	// forgets what an AI has learned from the boards it has seen, such as its search tables, before another game
+	public void clear()
+	{
+	}
 }
@@ -10,27 +10,112 @@
 //          gravity, when the game is over, and adding
 //          player pieces to the game board.
 //
+//          A move may also be made asynchronously, so
+//          that the AI thinks on a worker thread while
+//          the display stays responsive. The display is
+//          then only ever updated through the display
+//          executor (for Swing, the Event Dispatch
+//          Thread), which is also the only thread that
+//          touches this class's board.
+//
+//          Each move is also remembered on a stack, so
+//          that moves can be undone and redone, and when a
+//          record log is set, every finished game is
+//          added to it (see GameRecordLog).
+//
 //------------------------------------------------------
 
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
 public class GameLogic implements ConnectController
 {
 	private GameDisplay gameDisplay; // a pointer to the program's GameDisplay class,
 	private GameAI gameAI;
-	private BoardArray board; // this class's version of the game board, kept identical to the GameAI class's
-	private final int difficulties = 2; // the total number of AI difficulties that are available to select
+	private BoardArray board; // the game board, which the AI reads through its Position rather than copying
+	public static final int DIFFICULTIES = 6; // the total number of AI difficulties that are available to select
 	private int chosenDifficulty;
+	private int width; // the size of the board, and the number of tokens in a line needed to win
+	private int height;
+	private int objective;
+	private Executor displayExecutor; // runs the display updates of asynchronous moves, on the display's thread
+	private FutureTask<Integer> pendingMove; // the AI's asynchronous move, until it has been played or cancelled
+	private int generation; // counts the calls to reset, so that a move from an earlier game can be ignored
+	private boolean pondering; // true if the AI may think while waiting for the player's move
+	private int[] moves; // the columns played so far this game, by both players in turn, then any that were undone
+	private int moveCount;
+	private int redoCount; // the number of undone moves, after moveCount in moves, which redo can play again
+	private GameRecordLog recordLog; // where finished games are recorded, or null
+
+	// the AIs of every game think on these threads when moving asynchronously, which end once idle for a while
+	private static final ExecutorService AI_THREADS = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "GameLogic AI");
+		thread.setDaemon(true);
+		return thread;
+	});
 
 	// generic constructor
 	public GameLogic(GameDisplay gd)
+	{
+		this(gd, BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE);
+	}
+
+	public GameLogic(GameDisplay gd, int width, int height, int objective)
+	{
+		this(gd, width, height, objective, Runnable::run);
+	}
+
+	// asynchronous moves update the display through the given executor, such as SwingUtilities::invokeLater
+	public GameLogic(GameDisplay gd, int width, int height, int objective, Executor displayExecutor)
 	{
 		this.gameDisplay = gd;
+		this.width = width;
+		this.height = height;
+		this.objective = objective;
+		this.displayExecutor = displayExecutor;
+	}
+
+	// lets the AIs that search think during the player's turn, from the next reset on
+	public void setPondering(boolean pondering)
+	{
+		this.pondering = pondering;
+	}
+
+	// records each finished game in the given log, or none if it is null
+	public void setRecordLog(GameRecordLog recordLog)
+	{
+		this.recordLog = recordLog;
 	}
 
 	public void gameOver(Status PlayerNumber)
 	{
+		// recorded before the display is told, since it may start a new game straight away
+		recordGame(PlayerNumber);
 		this.gameDisplay.gameOver(PlayerNumber);
 	}
 
+	// adds the game as it stands to the record log, if there is one
+	private void recordGame(Status PlayerNumber)
+	{
+		if (this.recordLog != null)
+		{
+			try
+			{
+				this.recordLog.append(this.moves, this.moveCount, PlayerNumber);
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+		}
+	}
+
 	private int promptForOpponentDifficulty(int maxDifficulty)
 	{
 		return this.gameDisplay.promptForOpponentDifficulty(maxDifficulty);
@@ -55,7 +140,13 @@ public class GameLogic implements ConnectController
 	// its game board based on the AI's chosen column, then
 	// update the GameDisplay, then check if the game is over
 	// as a result of the AI's move. Then, finally, true
-	// is returned to the calling location.
+	// is returned to the calling location. If the AI throws
+	// an exception, the player's piece is taken back and the
+	// exception is passed on, and if it chooses a column
+	// that cannot be played, the piece is taken back and an
+	// IllegalStateException is thrown. While the AI is still
+	// choosing its reply to an asynchronous move, the board
+	// is left alone and an IllegalStateException is thrown.
 	//
 	// PARAMETERS:
 	// - col: the column that was selected by the player.
@@ -66,21 +157,33 @@ public class GameLogic implements ConnectController
 	// ------------------------------------------------------
 	public boolean addPiece(int col)
 	{
-		boolean result = false;
+		return addPiece(col, this.gameAI);
+	}
 
-		if (this.board.getCell(0, col) == Status.NEITHER) // check if the desired column has an empty space at the top
+	// as above, but the reply is chosen by the given AI, such as one lent for the move by a SessionManager worker
+	boolean addPiece(int col, GameAI ai)
+	{
+		if (ai == null)
 		{
-			// set the cell at the top of the board at the desired column
-			// as now occupied by the player
-			this.board.setCell(0, col, Status.ONE);
-			result = true;
+			throw new IllegalStateException("There is no AI to reply to the move");
 		}
 
+		// the AI's thread is reading the board, so it must not change until the reply is played
+		if (this.pendingMove != null)
+		{
+			throw new IllegalStateException("The AI is still choosing its move");
+		}
+
+		boolean result = isPlayable(col); // check if the desired column has an empty space at the top
+
 		if (result)
 		{
-			updateForNewToken(col); // shift the added piece down the board (as a result of gravity)
+			// drop the player's token into the desired column. the board knows
+			// the height of each column, so the token is placed directly in the
+			// cell it lands in (as a result of gravity)
+			int row = dropToken(col, Status.ONE);
 
-			Status gameOverToken = checkGameOver();
+			Status gameOverToken = checkGameOver(row, col);
 
 			if (gameOverToken != null)
 			{
@@ -89,14 +192,30 @@ public class GameLogic implements ConnectController
 			}
 			else
 			{
-				int aiMove = this.gameAI.makeMove(col);
+				int aiMove;
+
+				try
+				{
+					aiMove = ai.makeMove(this.board.getPosition());
+				}
+				catch (RuntimeException e)
+				{
+					takeBackPlayerMove();
+					throw e;
+				}
+
+				// a column off the board or already full (such as from a corrupt record) must never be dropped into
+				if (!isPlayable(aiMove))
+				{
+					takeBackPlayerMove();
+					throw new IllegalStateException("The AI chose column " + aiMove + ", which cannot be played");
+				}
 
 				// update this class's board to reflect the AI's chosen column
-				this.board.setCell(0, aiMove, Status.TWO);
-				updateForNewToken(aiMove); // shift the added token down the board (as a result of gravity)
+				row = dropToken(aiMove, Status.TWO);
 				this.gameDisplay.updateBoard(this.board.getBoard());
 
-				gameOverToken = checkGameOver();
+				gameOverToken = checkGameOver(row, aiMove);
 
 				if (gameOverToken != null)
 				{
@@ -110,381 +229,584 @@ public class GameLogic implements ConnectController
 
 	// ------------------------------------------------------
 	//
-	// checkGameOver
+	// addPieceAsync
 	//
-	// PURPOSE: The purpose of this method is to determine
-	// whether or not the game board has four of the same
-	// token (status) in a row, either vertically,
-	// horizontally, or diagonally, or if the board is full
-	// of tokens but there is not four in a row, which
-	// indicates a draw.
+	// PURPOSE: The purpose of this method is to add the
+	// player's piece as addPiece does, but without waiting
+	// for the AI. It must be called on the display's thread.
+	// The player's piece is added and shown straight away,
+	// then the AI's move is chosen on a worker thread. Once
+	// it is chosen, the rest of the move (adding the AI's
+	// piece, updating the display and checking if the game
+	// is over) is handed to the display executor. If reset
+	// is called in the meantime, the AI is interrupted, its
+	// move is ignored and the future is cancelled.
 	//
-	// PARAMETERS: None.
+	// PARAMETERS:
+	// - col: the column that was selected by the player.
 	//
-	// RETURNS: Null if the game is not over, otherwise the
-	// status indicating which player has won, or
-	// Status.NEITHER, indicating a draw.
+	// RETURNS: a future which completes with whether or not
+	// the requested piece was added to the board, once the
+	// AI has replied (or the game is over). It completes
+	// exceptionally if the AI is still thinking about the
+	// previous move, or fails to reply (see finishMove).
 	//
 	// ------------------------------------------------------
-	private Status checkGameOver()
+	public CompletableFuture<Boolean> addPieceAsync(int col)
 	{
-		Status token = checkVerticals();
+		CompletableFuture<Boolean> result = new CompletableFuture<Boolean>();
 
-		if (token == null)
+		if (this.pendingMove != null)
 		{
-			token = checkHorizontals();
+			result.completeExceptionally(new IllegalStateException("The AI is still choosing its move"));
+		}
+		else if (!isPlayable(col))
+		{
+			result.complete(false);
+		}
+		else
+		{
+			int row = dropToken(col, Status.ONE);
 
-			if (token == null)
+			// show the player's token while the AI thinks
+			this.gameDisplay.updateBoard(this.board.getBoard());
+
+			Status gameOverToken = checkGameOver(row, col);
+
+			if (gameOverToken != null)
 			{
-				token = checkDiagonals();
+				gameOver(gameOverToken);
+				result.complete(true);
+			}
+			else
+			{
+				// the board is not changed while the move is pending, and reset replaces it rather than clearing it
+				GameAI ai = this.gameAI;
+				Position position = this.board.getPosition();
+				int moveGeneration = this.generation;
 
-				if (token == null)
+				this.pendingMove = new FutureTask<Integer>(() -> ai.makeMove(position))
 				{
-					token = checkFull();
-				}
+					@Override
+					protected void done()
+					{
+						displayExecutor.execute(() -> finishMove(this, moveGeneration, result));
+					}
+				};
+				AI_THREADS.execute(this.pendingMove);
 			}
 		}
 
-		return token;
+		return result;
 	}
 
 	// ------------------------------------------------------
 	//
-	// reset
+	// finishMove
 	//
-	// PURPOSE: The purpose of this method is to create a new
-	// game by creating a brand new board then prompting the
-	// player to select an AI difficulty. A new AI of the
-	// selected difficulty is then created.
+	// PURPOSE: The purpose of this method is to play the
+	// AI's move chosen by addPieceAsync, on the display's
+	// thread, unless the game has been reset since. If the
+	// AI threw an exception, was cancelled or chose a
+	// column that cannot be played, the player's piece is
+	// taken back instead, so that the board and the move
+	// stack are left as they were before the player moved.
 	//
-	// PARAMETERS: None.
+	// PARAMETERS:
+	// - aiMove: the finished (or cancelled) AI move.
+	// - moveGeneration: the generation the move was made in.
+	// - result: the future returned by addPieceAsync.
 	//
 	// RETURNS: None.
 	//
 	// ------------------------------------------------------
-	public void reset()
+	private void finishMove(FutureTask<Integer> aiMove, int moveGeneration, CompletableFuture<Boolean> result)
 	{
-		this.board = new BoardArray();
-		this.chosenDifficulty = promptForOpponentDifficulty(this.difficulties);
-
-		if (this.chosenDifficulty == 1)
+		if (moveGeneration != this.generation)
 		{
-			this.gameAI = new DifficultyOne();
+			// the game was reset, and its board replaced, so there is nothing to take back
+			result.cancel(false);
 		}
-		else if (this.chosenDifficulty == 2)
+		else
 		{
-			this.gameAI = new DifficultyTwo();
+			int aiCol = -1;
+			Exception failure = null; // why the AI did not reply, or null if it did
+
+			this.pendingMove = null;
+
+			try
+			{
+				aiCol = aiMove.get();
+
+				if (!isPlayable(aiCol))
+				{
+					failure = new IllegalStateException("The AI chose column " + aiCol + ", which cannot be played");
+				}
+			}
+			catch (ExecutionException e)
+			{
+				// the AI's own exception, rather than the task's wrapper around it
+				failure = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+			}
+			catch (InterruptedException | CancellationException e)
+			{
+				failure = e;
+			}
+
+			if (failure != null)
+			{
+				// without a reply, the player's move is taken back, so that it is the player's turn again
+				takeBackPlayerMove();
+				this.gameDisplay.updateBoard(this.board.getBoard());
+
+				if (aiMove.isCancelled())
+				{
+					result.cancel(false);
+				}
+				else
+				{
+					result.completeExceptionally(failure);
+				}
+			}
+			else
+			{
+				int row = dropToken(aiCol, Status.TWO);
+
+				this.gameDisplay.updateBoard(this.board.getBoard());
+
+				Status gameOverToken = checkGameOver(row, aiCol);
+
+				if (gameOverToken != null)
+				{
+					gameOver(gameOverToken);
+				}
+
+				result.complete(true);
+			}
 		}
 	}
 
+	// the number of moves played so far this game, by both players
+	int getMoveCount()
+	{
+		return this.moveCount;
+	}
+
 	// ------------------------------------------------------
 	//
-	// updateForNewToken
+	// undo
 	//
-	// PURPOSE: The purpose of this method is to shift all
-	// tokens down the board as far as possible (due to
-	// gravity). The only token that will be shifted down is
-	// the most recently added token in the given column. As
-	// this method is called whenever a new token is added,
-	// the board will always be in a valid state by the end
-	// of the method, despite adjusting a single column.
+	// PURPOSE: The purpose of this method is to take back
+	// the player's most recent move, along with the AI's
+	// reply, so that it is the player's turn again. The
+	// moves are taken back from the board, which the AI
+	// reads rather than keeping its own, then the display
+	// is updated.
 	//
-	// PARAMETERS:
-	// - col: the given column where the most recent token
-	// was added to.
+	// PARAMETERS: None.
 	//
-	// RETURNS: None.
+	// RETURNS: true if a move was taken back, or false if
+	// there was none, or the AI is still choosing its move.
 	//
 	// ------------------------------------------------------
-	private void updateForNewToken(int col)
+	public boolean undo()
 	{
-		for (int row = 0; row < this.board.getHeight(); row++)
+		boolean result = this.pendingMove == null && this.moveCount > 0;
+
+		if (result)
 		{
-			if (this.board.getCell(row, col) != Status.NEITHER)
+			// the player's moves are the even ones, so stop once the next move would be the player's
+			do
 			{
-				Status token = this.board.getCell(row, col);
-
-				// check that we are at least in the second-last row
-				if (row < this.board.getHeight() - 1)
-				{
-					// check the row directly underneath the current one for an empty space.
-					// this will never check the very last row of the board, since we are
-					// stopping at the second-last row in the previous if-check
-					if (this.board.getCell(row + 1, col) == Status.NEITHER)
-					{
-						this.board.setCell(row, col, Status.NEITHER); // set the current row and column's cell as empty
+				int col = this.moves[--this.moveCount];
 
-						// set the next row and current column's cell as the previously found token
-						this.board.setCell(row + 1, col, token);
-					}
-				}
+				this.board.undoToken(col);
+				this.redoCount++;
 			}
+			while (this.moveCount % 2 != 0);
+
+			this.gameDisplay.updateBoard(this.board.getBoard());
 		}
+
+		return result;
 	}
 
 	// ------------------------------------------------------
 	//
-	// checkVerticals
+	// redo
 	//
-	// PURPOSE: The purpose of this method is to check if
-	// there are four of the same token in a row on a
-	// vertical line. Since we are moving down from the
-	// top of the board and moving left to right, we need
-	// only check if there are four in a line directly below
-	// the currently found token, rather than needing to
-	// check both above and below on the vertical.
+	// PURPOSE: The purpose of this method is to play again
+	// the moves most recently taken back by undo, up to the
+	// player's next turn, without asking the AI to choose
+	// its reply again. The display is then updated, and the
+	// game may be over as a result. A game that ends again
+	// this way was recorded when it first ended, so the
+	// display is told without recording it a second time.
 	//
 	// PARAMETERS: None.
 	//
-	// RETURNS: a status, indicating which token was found,
-	// or null, indicating that four in a row was not found.
+	// RETURNS: true if a move was played again, or false if
+	// there was none, or the AI is still choosing its move.
 	//
 	// ------------------------------------------------------
-	private Status checkVerticals()
+	public boolean redo()
 	{
-		Status token = null;
+		boolean result = this.pendingMove == null && this.redoCount > 0;
 
-		for (int row = 0; row < this.board.getHeight() && token == null; row++)
+		if (result)
 		{
-			for (int col = 0; col < this.board.getWidth() && token == null; col++)
+			Status gameOverToken = null;
+
+			// the player's move, then the AI's reply, unless the game ends first
+			do
 			{
-				if (this.board.getCell(row, col) != Status.NEITHER)
-				{
-					// a token has been found, therefore, we need only check
-					// the next three rows down to see if there are four in a line
-					Status currToken = this.board.getCell(row, col);
+				int col = this.moves[this.moveCount];
+				Status token = (this.moveCount % 2 == 0) ? Status.ONE : Status.TWO;
+				int row = this.board.dropToken(col, token);
 
-					// check if the current row allows for enough space
-					// for there to be the potential of four in a line
-					if ((row + this.board.getObjective() - 1) < this.board.getHeight())
-					{
-						// check the tokens at the cells three spaces below the current row
-						if ((this.board.getCell(row + 1, col) == currToken)
-								&& (this.board.getCell(row + 2, col) == currToken)
-								&& (this.board.getCell(row + 3, col) == currToken))
-						{
-							token = currToken;
-						}
-					}
-				}
+				this.moveCount++;
+				this.redoCount--;
+				gameOverToken = checkGameOver(row, col);
+			}
+			while (this.redoCount > 0 && this.moveCount % 2 != 0 && gameOverToken == null);
+
+			this.gameDisplay.updateBoard(this.board.getBoard());
+
+			if (gameOverToken != null)
+			{
+				this.gameDisplay.gameOver(gameOverToken);
 			}
 		}
 
-		return token;
+		return result;
+	}
+
+	// checks whether the column is on the board and not yet full
+	private boolean isPlayable(int col)
+	{
+		return col >= 0 && col < this.board.getWidth() && this.board.canPlay(col);
+	}
+
+	// takes the player's move back off the board when the AI fails to reply, so that it is the player's turn again
+	private void takeBackPlayerMove()
+	{
+		this.board.undoToken(this.moves[--this.moveCount]);
+	}
+
+	// drops the token into this class's board and remembers the move, returning the row it landed in
+	private int dropToken(int col, Status token)
+	{
+		// a new move replaces any that were undone
+		this.redoCount = 0;
+		this.moves[this.moveCount++] = col;
+
+		return this.board.dropToken(col, token);
 	}
 
 	// ------------------------------------------------------
 	//
-	// checkHorizontals
+	// checkGameOver
 	//
-	// PURPOSE: The purpose of this method is to check if
-	// there are four of the same token in a row on a
-	// horizontal line. Since we are moving down from the
-	// top of the board and moving left to right, we need
-	// only check if there are four in a line to the right
-	// of the currently found token, rather than needing to
-	// check both left and right on the horizontal.
+	// PURPOSE: The purpose of this method is to determine
+	// whether or not the most recently added token has
+	// completed four of the same token (status) in a row,
+	// either vertically, horizontally, or diagonally, or if
+	// the board is full of tokens but there is not four in
+	// a row, which indicates a draw. Since the game would
+	// already be over if there was a line anywhere else on
+	// the board, only the four lines passing through the
+	// most recently filled cell need to be checked.
 	//
-	// PARAMETERS: None.
+	// PARAMETERS:
+	// - board: the board the token was added to.
+	// - row: the row of the most recently added token.
+	// - col: the column of the most recently added token.
 	//
-	// RETURNS: a status, indicating which token was found,
-	// or null, indicating that four in a row was not found.
+	// RETURNS: Null if the game is not over, otherwise the
+	// status indicating which player has won, or
+	// Status.NEITHER, indicating a draw.
 	//
 	// ------------------------------------------------------
-	private Status checkHorizontals()
+	static Status checkGameOver(BoardArray board, int row, int col)
 	{
-		Status token = null;
+		Status token = board.getCell(row, col);
 
-		for (int row = 0; row < this.board.getHeight() && token == null; row++)
+		// check the vertical, horizontal, right diagonal and left diagonal lines, in that order
+		if (!(checkLine(board, row, col, 1, 0) || checkLine(board, row, col, 0, 1)
+				|| checkLine(board, row, col, 1, 1) || checkLine(board, row, col, 1, -1)))
 		{
-			for (int col = 0; col < this.board.getWidth() && token == null; col++)
-			{
-				if (this.board.getCell(row, col) != Status.NEITHER)
-				{
-					// a token has been found, therefore, we need only check
-					// the next three columns to the right to see if there are four in a line
-					Status currToken = this.board.getCell(row, col);
+			token = null;
 
-					// check if the current column allows for enough space
-					// for there to be the potential of four in a line
-					if ((col + this.board.getObjective() - 1) < this.board.getWidth())
-					{
-						// check the tokens at the cells three spaces directly to the right of the current column
-						if ((this.board.getCell(row, col + 1) == currToken)
-								&& (this.board.getCell(row, col + 2) == currToken)
-								&& (this.board.getCell(row, col + 3) == currToken))
-						{
-							token = currToken;
-						}
-					}
-				}
+			if (board.isFull())
+			{
+				token = Status.NEITHER;
 			}
 		}
 
 		return token;
 	}
 
+	// as above, for this class's board
+	private Status checkGameOver(int row, int col)
+	{
+		return checkGameOver(this.board, row, col);
+	}
+
 	// ------------------------------------------------------
 	//
-	// checkDiagonals
+	// reset
 	//
-	// PURPOSE: The purpose of this method is to check if
-	// there are four of the same token in a row on a
-	// diagonal line, both going left and right.
+	// PURPOSE: The purpose of this method is to create a new
+	// game by creating a brand new board then prompting the
+	// player to select an AI difficulty. A new AI of the
+	// selected difficulty is then created. An asynchronous
+	// move still being chosen by the previous AI is
+	// cancelled.
 	//
 	// PARAMETERS: None.
 	//
-	// RETURNS: a status, indicating which token was found,
-	// or null, indicating that four in a row was not found.
+	// RETURNS: None.
 	//
 	// ------------------------------------------------------
-	private Status checkDiagonals()
+	public void reset()
 	{
-		Status token = checkRightDiagonal();
+		cancelMove();
+		this.chosenDifficulty = promptForOpponentDifficulty(DIFFICULTIES);
+		reset(createAI(this.chosenDifficulty, this.width, this.height, this.objective));
+	}
 
-		if (token == null)
+	// starts a new game against the given AI, without prompting, such as to replay a recorded game. a game
+	// whose every move is given the AI to reply with (see addPiece(int, GameAI)) is started with null
+	void reset(GameAI ai)
+	{
+		cancelMove();
+		this.board = new BoardArray(this.width, this.height, this.objective);
+		this.moves = new int[this.width * this.height];
+		this.moveCount = 0;
+		this.redoCount = 0;
+		this.gameAI = ai;
+
+		if (this.gameAI != null)
 		{
-			token = checkLeftDiagonal();
+			this.gameAI.setPondering(this.pondering);
 		}
+	}
 
-		return token;
+	// cancels an asynchronous move still being chosen, and stops the AI from pondering
+	private void cancelMove()
+	{
+		this.generation++;
+
+		if (this.pendingMove != null)
+		{
+			this.pendingMove.cancel(true);
+			this.pendingMove = null;
+		}
+
+		// the previous AI must not go on pondering after it has been replaced
+		if (this.gameAI != null)
+		{
+			this.gameAI.setPondering(false);
+		}
 	}
 
 	// ------------------------------------------------------
 	//
-	// checkRightDiagonal
+	// createAI
 	//
-	// PURPOSE: The purpose of this method is to check if
-	// there are four of the same token in a row on a right
-	// diagonal line. Since we are moving down from the top
-	// of the board and moving left to right, we need only
-	// check if there are four in a line to the right and
-	// down of the currently found token, rather than needing
-	// to check both up and left or right and down on the
-	// diagonal.
+	// PURPOSE: The purpose of this method is to create a new
+	// AI of the given difficulty, for a game or for a
+	// Tournament. The files the AIs share are each read
+	// once (see WindowEvaluator.forObjective, OpeningBook
+	// and EndgameTable). If one cannot be read, the AI
+	// plays without it: the default weights are used, and
+	// the AI searches instead of using the book or table.
+	// A launcher that wants to report this calls them
+	// itself, as Tournament does.
 	//
-	// PARAMETERS: None.
+	// PARAMETERS:
+	// - difficulty: the difficulty, from 1 to DIFFICULTIES.
+	// - width: the number of columns on the board.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	//
+	// - threads: the most threads the AI may search with.
+	// Only difficulty four searches with more than one.
 	//
-	// RETURNS: a status, indicating which token was found,
-	// or null, indicating that four in a row was not found.
+	// RETURNS: the new AI, or null if there is no such
+	// difficulty.
 	//
 	// ------------------------------------------------------
-	private Status checkRightDiagonal()
+	public static GameAI createAI(int difficulty, int width, int height, int objective, int threads)
 	{
-		Status token = null;
+		GameAI gameAI = null;
 
-		for (int row = 0; row < this.board.getHeight() && token == null; row++)
+		if (difficulty == 1)
 		{
-			for (int col = 0; col < this.board.getWidth() && token == null; col++)
-			{
-				if (this.board.getCell(row, col) != Status.NEITHER)
-				{
-					// a token has been found, therefore, we need only check
-					// the next three rows and columns down and right, respectively,
-					// to see if there are four in a line
-					Status currToken = this.board.getCell(row, col);
-
-					// check if the current row and column allows for enough space
-					// for there to be the potential of four in a line
-					if ((row + this.board.getObjective() - 1) < this.board.getHeight()
-							&& (col + this.board.getObjective() - 1) < this.board.getWidth())
-					{
-						// check the tokens at the cells three spaces down and right,
-						// diagonally, of the current row and column
-						if ((this.board.getCell(row + 1, col + 1) == currToken)
-								&& (this.board.getCell(row + 2, col + 2) == currToken)
-								&& (this.board.getCell(row + 3, col + 3) == currToken))
-						{
-							token = currToken;
-						}
-					}
-				}
-			}
+			gameAI = new DifficultyOne();
+		}
+		else if (difficulty == 2)
+		{
+			gameAI = new DifficultyTwo();
+		}
+		else if (difficulty == 3)
+		{
+			gameAI = new DifficultyThree(width, height, objective, DifficultyThree.MAX_DEPTH,
+					DifficultyThree.INTERACTIVE_TIME_BUDGET, 0, findEvaluator(objective), 1);
+		}
+		else if (difficulty == 4)
+		{
+			// the same AI as difficulty three, but allowed to think for much longer, using as many threads as allowed
+			gameAI = new DifficultyThree(width, height, objective, DifficultyThree.MAX_DEPTH,
+					DifficultyThree.ANALYSIS_TIME_BUDGET, 0, findEvaluator(objective), threads);
+		}
+		else if (difficulty == 5)
+		{
+			gameAI = new DifficultyMonteCarlo(width, height, objective, DifficultyThree.INTERACTIVE_TIME_BUDGET,
+					DifficultyMonteCarlo.DEFAULT_EXPLORATION, DifficultyMonteCarlo.DEFAULT_MAX_NODES);
+		}
+		else if (difficulty == 6)
+		{
+			gameAI = new DifficultyOpeningBook(width, height, objective, findBook(), findEvaluator(objective),
+					DifficultyThree.INTERACTIVE_TIME_BUDGET);
 		}
 
-		return token;
+		// every AI is offered the endgame table, if there is one for this size of board
+		if (gameAI != null)
+		{
+			gameAI.setEndgameTable(findEndgameTable(width, height, objective));
+		}
+
+		return gameAI;
+	}
+
+	// as above, where difficulty four searches with every core
+	public static GameAI createAI(int difficulty, int width, int height, int objective)
+	{
+		return createAI(difficulty, width, height, objective, Runtime.getRuntime().availableProcessors());
+	}
+
+	// the evaluator the AIs play with, or one with the default weights if the weights file cannot be read
+	private static BoardEvaluator findEvaluator(int objective)
+	{
+		BoardEvaluator evaluator;
+
+		try
+		{
+			evaluator = WindowEvaluator.forObjective(objective);
+		}
+		catch (IOException e)
+		{
+			evaluator = new WindowEvaluator(objective);
+		}
+
+		return evaluator;
+	}
+
+	// the shared opening book, or null if there is none
+	private static OpeningBook findBook()
+	{
+		OpeningBook book;
+
+		try
+		{
+			book = OpeningBook.forPath(OpeningBookBuilder.DEFAULT_PATH);
+		}
+		catch (IOException e)
+		{
+			book = null;
+		}
+
+		return book;
+	}
+
+	// the shared endgame table for the given board, or null if there is none
+	private static EndgameTable findEndgameTable(int width, int height, int objective)
+	{
+		EndgameTable table;
+
+		try
+		{
+			table = EndgameTable.forSize(width, height, objective);
+		}
+		catch (IOException e)
+		{
+			table = null;
+		}
+
+		return table;
 	}
 
 	// ------------------------------------------------------
 	//
-	// checkLeftDiagonal
+	// checkLine
 	//
-	// PURPOSE: The purpose of this method is to check if
-	// there are four of the same token in a row on a left
-	// diagonal line. Since we are moving down from the top
-	// of the board and moving left to right, we need only
-	// check if there are four in a line to the left and
-	// down of the currently found token, rather than needing
-	// to check both up and right or left and down on the
-	// diagonal.
+	// PURPOSE: The purpose of this method is to count the
+	// tokens matching the token at the given cell along one
+	// line through that cell, moving outwards in both
+	// directions until a different token or the edge of the
+	// board is reached.
 	//
-	// PARAMETERS: None.
+	// PARAMETERS:
+	// - board: the board to look along.
+	// - row: the row of the cell the line passes through.
+	// - col: the column of the cell the line passes through.
+	// - rowStep: the change in row for each step along the
+	// line.
+	// - colStep: the change in column for each step along
+	// the line.
 	//
-	// RETURNS: a status, indicating which token was found,
-	// or null, indicating that four in a row was not found.
+	// RETURNS: true if there are at least four of the same
+	// token in a line, false otherwise.
 	//
 	// ------------------------------------------------------
-	private Status checkLeftDiagonal()
+	private static boolean checkLine(BoardArray board, int row, int col, int rowStep, int colStep)
 	{
-		Status token = null;
+		Status token = board.getCell(row, col);
 
-		for (int row = 0; row < this.board.getHeight() && token == null; row++)
-		{
-			for (int col = 0; col < this.board.getWidth() && token == null; col++)
-			{
-				if (this.board.getCell(row, col) != Status.NEITHER)
-				{
-					// a token has been found, therefore, we need only check
-					// the next three rows and columns down and left, respectively,
-					// to see if there are four in a line
-					Status currToken = this.board.getCell(row, col);
-
-					// check if the current row and column allows for enough space
-					// for there to be the potential of four in a line
-					if ((row + this.board.getObjective() - 1) < this.board.getHeight()
-							&& (col - (this.board.getObjective() - 1)) >= 0)
-					{
-						// check the tokens at the cells three spaces down and left,
-						// diagonally, of the current row and column
-						if ((this.board.getCell(row + 1, col - 1) == currToken)
-								&& (this.board.getCell(row + 2, col - 2) == currToken)
-								&& (this.board.getCell(row + 3, col - 3) == currToken))
-						{
-							token = currToken;
-						}
-					}
-				}
-			}
-		}
+		// the token at the given cell counts towards the line
+		int count = 1 + countInDirection(board, row, col, rowStep, colStep, token)
+				+ countInDirection(board, row, col, -rowStep, -colStep, token);
 
-		return token;
+		return count >= board.getObjective();
 	}
 
 	// ------------------------------------------------------
 	//
-	// checkFull
+	// countInDirection
 	//
-	// PURPOSE: The purpose of this method is to check if the
-	// board is full or not.
+	// PURPOSE: The purpose of this method is to count how
+	// many of the given token follow the given cell in a
+	// single direction, stopping once there are enough for
+	// a line.
 	//
-	// PARAMETERS: None.
+	// PARAMETERS:
+	// - board: the board to count on.
+	// - row: the row of the starting cell (not counted).
+	// - col: the column of the starting cell (not counted).
+	// - rowStep: the change in row for each step.
+	// - colStep: the change in column for each step.
+	// - token: the token being counted.
 	//
-	// RETURNS: a status, Neither, if the board is full, or
-	// null, if the board has at least one empty space.
+	// RETURNS: the number of matching tokens found.
 	//
 	// ------------------------------------------------------
-	private Status checkFull()
+	private static int countInDirection(BoardArray board, int row, int col, int rowStep, int colStep, Status token)
 	{
-		Status token = Status.NEITHER; // assume an empty board
+		int count = 0;
+		int currRow = row + rowStep;
+		int currCol = col + colStep;
 
-		for (int col = 0; col < this.board.getWidth() && token != null; col++)
+		while (count < board.getObjective() - 1 && currRow >= 0 && currRow < board.getHeight()
+				&& currCol >= 0 && currCol < board.getWidth()
+				&& board.getCell(currRow, currCol) == token)
 		{
-			if (this.board.getCell(0, col) == Status.NEITHER)
-			{
-				token = null;
-			}
+			count++;
+			currRow += rowStep;
+			currCol += colStep;
 		}
 
-		return token;
+		return count;
 	}
 }
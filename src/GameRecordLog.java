@@ -0,0 +1,218 @@
+
+//------------------------------------------------------
+//
+// CLASS: GameRecordLog
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to record
+//          finished games, as the columns played, in a
+//          compact binary file that is only ever added
+//          to. The games can be played back later by a
+//          ReplayEngine.
+//
+//          The file starts with a header of four ints: a
+//          magic number, then the board's width, height
+//          and objective, which every game in the file
+//          shares. Each game follows as a header and its
+//          moves. The header is a varint (7 bits per byte,
+//          lowest first, the top bit set on every byte but
+//          the last) holding the number of moves shifted
+//          left by two, with the result in the low two
+//          bits (see RESULT_DRAW and the others). The moves
+//          come two to a byte, the first in the low four
+//          bits, so a column must be less than 16. The
+//          player who moved first is always Status.ONE.
+//
+//          A whole game is written at once from a reused
+//          buffer, and appends are synchronized, so one
+//          log can be shared by many threads.
+//
+//------------------------------------------------------
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class GameRecordLog implements AutoCloseable
+{
+	public static final int MAGIC = 0x43344752; // "C4GR"
+	public static final int HEADER_SIZE = 16; // bytes
+	public static final int MAX_WIDTH = 16; // the most columns a move's four bits can hold
+
+	// the result of a game, as stored in the low two bits of its header
+	public static final int RESULT_DRAW = 0;
+	public static final int RESULT_ONE = 1;
+	public static final int RESULT_TWO = 2;
+
+	private static final int MAX_VARINT_SIZE = 5; // bytes needed for any int
+
+	private DataOutputStream out;
+	private byte[] buffer; // one encoded game, reused for every append
+	private int width; // the size of the board, and the number of tokens in a line needed to win
+	private int height;
+	private int objective;
+	private long games; // the number of games appended by this log
+
+	// ------------------------------------------------------
+	//
+	// GameRecordLog
+	//
+	// PURPOSE: The purpose of this constructor is to open
+	// the given log file for appending, creating it with a
+	// header for the given board if it does not exist yet.
+	//
+	// PARAMETERS:
+	// - path: the log file.
+	// - width: the number of columns on the board, at most
+	// MAX_WIDTH.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	//
+	// RETURNS: None. An IOException is thrown if the file
+	// cannot be opened, or already holds games played on a
+	// different board.
+	//
+	// ------------------------------------------------------
+	public GameRecordLog(String path, int width, int height, int objective) throws IOException
+	{
+		if (width > MAX_WIDTH)
+		{
+			throw new IllegalArgumentException("Games can only be recorded on boards at most " + MAX_WIDTH + " wide");
+		}
+
+		File file = new File(path);
+		boolean exists = file.length() > 0;
+
+		if (exists)
+		{
+			try (DataInputStream in = new DataInputStream(new FileInputStream(file)))
+			{
+				if (in.readInt() != MAGIC || in.readInt() != width || in.readInt() != height
+						|| in.readInt() != objective)
+				{
+					throw new IOException(path + " is not a game record log for a " + width + " by " + height
+							+ " board with objective " + objective);
+				}
+			}
+		}
+
+		this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+		this.buffer = new byte[MAX_VARINT_SIZE + (width * height + 1) / 2];
+		this.width = width;
+		this.height = height;
+		this.objective = objective;
+
+		if (!exists)
+		{
+			this.out.writeInt(MAGIC);
+			this.out.writeInt(width);
+			this.out.writeInt(height);
+			this.out.writeInt(objective);
+		}
+	}
+
+	// various getters for the class
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	public int getHeight()
+	{
+		return this.height;
+	}
+
+	public int getObjective()
+	{
+		return this.objective;
+	}
+
+	public synchronized long getGames()
+	{
+		return this.games;
+	}
+
+	// ------------------------------------------------------
+	//
+	// append
+	//
+	// PURPOSE: The purpose of this method is to add one
+	// finished game to the end of the log.
+	//
+	// PARAMETERS:
+	// - moves: the columns played, in order, starting with
+	// Status.ONE's first move.
+	// - count: the number of moves played.
+	// - winner: the winning token, or Status.NEITHER for a
+	// draw.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public synchronized void append(int[] moves, int count, Status winner) throws IOException
+	{
+		int result = (winner == Status.ONE) ? RESULT_ONE : (winner == Status.TWO) ? RESULT_TWO : RESULT_DRAW;
+		int length = writeVarint(this.buffer, 0, (count << 2) | result);
+
+		for (int i = 0; i < count; i += 2)
+		{
+			int second = (i + 1 < count) ? moves[i + 1] : 0;
+
+			this.buffer[length++] = (byte) (moves[i] | (second << 4));
+		}
+
+		this.out.write(this.buffer, 0, length);
+		this.games++;
+	}
+
+	// writes any games still buffered to the file
+	public synchronized void flush() throws IOException
+	{
+		this.out.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		this.out.close();
+	}
+
+	// writes the value as a varint at the given offset, returning the offset after it
+	static int writeVarint(byte[] buffer, int offset, int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		buffer[offset++] = (byte) value;
+
+		return offset;
+	}
+
+	// reads a varint from the buffer's position, leaving the position after it
+	static int readVarint(ByteBuffer buffer)
+	{
+		int value = 0;
+		int shift = 0;
+		byte b;
+
+		do
+		{
+			b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while (b < 0);
+
+		return value;
+	}
+}
@@ -0,0 +1,194 @@
+
+//------------------------------------------------------
+//
+// CLASS: GameSession
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to hold one game
+//          hosted by a SessionManager: a GameLogic, with
+//          its board and moves, and a HeadlessDisplay that
+//          keeps the board and result for the client to ask
+//          for. A session has no AI of its own. Each move
+//          is given the AI to reply with by the worker
+//          thread playing it (see WorkerAIs), so the AIs'
+//          tables are not kept for every session, and the
+//          SessionManager's worker pool bounds the threads
+//          every session uses between them. Only one move
+//          is played on a session at a time, since GameLogic
+//          is not thread safe.
+//
+//------------------------------------------------------
+
+public class GameSession
+{
+	private String id;
+	private GameLogic logic;
+	private HeadlessDisplay display;
+	private int difficulty;
+	private int objective;
+	private int width; // the size of the board
+	private int height;
+	private volatile long lastUsed; // the System.nanoTime() value when the session was last used
+	private long moves; // the number of moves played by the client
+	private long totalNanos; // the time taken by those moves, including the AI's reply
+	private long maxNanos;
+
+	// generic constructor, which starts a game against the given difficulty of AI
+	public GameSession(String id, int difficulty, int width, int height, int objective)
+	{
+		this.id = id;
+		this.width = width;
+		this.height = height;
+		this.difficulty = difficulty;
+		this.objective = objective;
+		this.display = new HeadlessDisplay(difficulty);
+		this.logic = new GameLogic(this.display, width, height, objective);
+		newGame();
+		touch();
+	}
+
+	// various getters for the class
+	public String getId()
+	{
+		return this.id;
+	}
+
+	public long getLastUsed()
+	{
+		return this.lastUsed;
+	}
+
+	public int getDifficulty()
+	{
+		return this.difficulty;
+	}
+
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	public int getHeight()
+	{
+		return this.height;
+	}
+
+	public int getObjective()
+	{
+		return this.objective;
+	}
+
+	public synchronized long getMoves()
+	{
+		return this.moves;
+	}
+
+	public synchronized long getMeanNanos()
+	{
+		return (this.moves > 0) ? this.totalNanos / this.moves : 0;
+	}
+
+	public synchronized long getMaxNanos()
+	{
+		return this.maxNanos;
+	}
+
+	public synchronized boolean isGameOver()
+	{
+		return this.display.isGameOver();
+	}
+
+	// the winner of the game, Status.NEITHER for a draw, or null if the game is still going
+	public synchronized Status getWinner()
+	{
+		return this.display.getWinner();
+	}
+
+	// marks the session as used now, so that it is not evicted as idle
+	public void touch()
+	{
+		this.lastUsed = System.nanoTime();
+	}
+
+	// ------------------------------------------------------
+	//
+	// addPiece
+	//
+	// PURPOSE: The purpose of this method is to play the
+	// client's token in the given column, followed by the
+	// AI's reply, and record how long that took if the
+	// token was played.
+	//
+	// PARAMETERS:
+	// - col: the column chosen by the client, from 0.
+	// - ai: the AI to reply with, of the session's
+	// difficulty and made for its board.
+	//
+	// RETURNS: true if the token was played, or false if
+	// the column is not on the board or is full, or the game
+	// is already over.
+	//
+	// ------------------------------------------------------
+	public synchronized boolean addPiece(int col, GameAI ai)
+	{
+		boolean result = false;
+
+		touch();
+
+		if (!this.display.isGameOver() && col >= 0 && col < this.width)
+		{
+			long start = System.nanoTime();
+
+			result = this.logic.addPiece(col, ai);
+
+			long elapsed = System.nanoTime() - start;
+
+			// a column that could not be played is not a move, so it is not counted
+			if (result)
+			{
+				this.moves++;
+				this.totalNanos += elapsed;
+				this.maxNanos = Math.max(this.maxNanos, elapsed);
+			}
+		}
+
+		return result;
+	}
+
+	// starts a new game against the same difficulty of AI
+	public synchronized void reset()
+	{
+		touch();
+		newGame();
+	}
+
+	// starts a new game, with no AI of its own, since each move is given one
+	private void newGame()
+	{
+		this.logic.reset(null);
+	}
+
+	// ------------------------------------------------------
+	//
+	// getBoardText
+	//
+	// PURPOSE: The purpose of this method is to write the
+	// board as text, with the same marks as TextBoard ('X'
+	// for the client, 'O' for the AI and '-' for empty), one
+	// row at a time from the top, separated by '/'.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: the board as a String.
+	//
+	// ------------------------------------------------------
+	public synchronized String getBoardText()
+	{
+		char[] frame = new char[TextBoard.frameLength(this.height, this.width, true)];
+		int length = TextBoard.renderBoard(this.display.getBoard(), this.height, this.width, true, frame);
+
+		// the compact form ends with a line separator, which the protocol's reply does not want
+		return new String(frame, 0, length - System.lineSeparator().length());
+	}
+}
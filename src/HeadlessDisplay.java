@@ -0,0 +1,70 @@
+
+//------------------------------------------------------
+//
+// CLASS: HeadlessDisplay
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to stand in for
+//          a GameDisplay when no one is watching, such as
+//          when AIs are playing each other in a
+//          Tournament. Nothing is drawn; the display only
+//          remembers the latest board and the result of
+//          the game, and always answers the difficulty
+//          prompt with the difficulty it was given.
+//
+//------------------------------------------------------
+
+public class HeadlessDisplay implements GameDisplay
+{
+	private int difficulty; // the answer given to promptForOpponentDifficulty
+	private Status[][] board; // the latest board passed to updateBoard, or null if there has not been one yet
+	private Status winner; // the result passed to gameOver, or null while the game is still going
+
+	// generic constructor
+	public HeadlessDisplay(int difficulty)
+	{
+		this.difficulty = difficulty;
+	}
+
+	public void gameOver(Status PlayerNumber)
+	{
+		this.winner = PlayerNumber;
+	}
+
+	public void updateBoard(Status[][] board)
+	{
+		this.board = board;
+	}
+
+	// called by GameLogic.reset(), so the previous game's board and result are forgotten here
+	public int promptForOpponentDifficulty(int maxDifficulty)
+	{
+		clear();
+
+		return Math.min(this.difficulty, maxDifficulty);
+	}
+
+	// forgets the previous game's board and result, for games started without the difficulty prompt
+	public void clear()
+	{
+		this.winner = null;
+		this.board = null;
+	}
+
+	// various getters for the class
+	public Status[][] getBoard()
+	{
+		return this.board;
+	}
+
+	public Status getWinner()
+	{
+		return this.winner;
+	}
+
+	public boolean isGameOver()
+	{
+		return this.winner != null;
+	}
+}
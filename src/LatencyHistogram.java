@@ -0,0 +1,137 @@
+
+//------------------------------------------------------
+//
+// CLASS: LatencyHistogram
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to record how
+//          long many operations took, using a fixed
+//          amount of memory however many are recorded,
+//          so that percentiles can be reported for a
+//          server that runs for a long time. Each time
+//          is counted in a bucket rather than kept, so
+//          percentiles are accurate to within about an
+//          eighth of the time. Times may be recorded from
+//          several threads at once without locking.
+//
+//------------------------------------------------------
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram
+{
+	private static final int LINEAR_BUCKETS = 16; // times below this get a bucket each
+	private static final int SUB_BUCKET_BITS = 3; // each power of two above that is split into 2^3 buckets
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 4) * SUB_BUCKETS;
+
+	private AtomicLongArray counts; // the number of times recorded in each bucket
+	private AtomicLong count;
+	private AtomicLong total; // the sum of every time recorded
+	private AtomicLong max;
+
+	// generic constructor
+	public LatencyHistogram()
+	{
+		this.counts = new AtomicLongArray(BUCKETS);
+		this.count = new AtomicLong();
+		this.total = new AtomicLong();
+		this.max = new AtomicLong();
+	}
+
+	// records one time, in nanoseconds
+	public void record(long nanos)
+	{
+		long time = Math.max(nanos, 0);
+
+		this.counts.incrementAndGet(bucketOf(time));
+		this.count.incrementAndGet();
+		this.total.addAndGet(time);
+		this.max.accumulateAndGet(time, Math::max);
+	}
+
+	// various getters for the class, in nanoseconds
+	public long getCount()
+	{
+		return this.count.get();
+	}
+
+	public long getMean()
+	{
+		long recorded = this.count.get();
+
+		return (recorded > 0) ? this.total.get() / recorded : 0;
+	}
+
+	public long getMax()
+	{
+		return this.max.get();
+	}
+
+	// ------------------------------------------------------
+	//
+	// getPercentile
+	//
+	// PURPOSE: The purpose of this method is to find the
+	// time below which the given percentage of the recorded
+	// times fall, by counting through the buckets in order.
+	//
+	// PARAMETERS:
+	// - percentile: from 0 to 100.
+	//
+	// RETURNS: the largest time that falls in the bucket
+	// holding the percentile (but no more than the largest
+	// time recorded), or 0 if nothing has been recorded.
+	//
+	// ------------------------------------------------------
+	public long getPercentile(double percentile)
+	{
+		long recorded = this.count.get();
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+		long seen = 0;
+		long time = 0;
+
+		for (int bucket = 0; bucket < BUCKETS && seen < rank && recorded > 0; bucket++)
+		{
+			seen += this.counts.get(bucket);
+			time = upperBoundOf(bucket);
+		}
+
+		return Math.min(time, getMax());
+	}
+
+	// maps a time to its bucket: linear for small times, then SUB_BUCKETS per power of two
+	private static int bucketOf(long time)
+	{
+		int bucket = (int) time;
+
+		if (time >= LINEAR_BUCKETS)
+		{
+			int exponent = 63 - Long.numberOfLeadingZeros(time); // at least 4
+			int sub = (int) (time >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+			bucket = LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+		}
+
+		return bucket;
+	}
+
+	// the largest time that maps to the given bucket
+	private static long upperBoundOf(int bucket)
+	{
+		long bound = bucket;
+
+		if (bucket >= LINEAR_BUCKETS)
+		{
+			int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+			int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+			long width = 1L << (exponent - SUB_BUCKET_BITS);
+
+			bound = (SUB_BUCKETS + sub) * width + width - 1;
+		}
+
+		return bound;
+	}
+}
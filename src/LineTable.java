@@ -0,0 +1,190 @@
+//------------------------------------------------------
+//
+// CLASS: LineTable
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to list every
+//          window of the board, where a window is a run
+//          of objective cells in a line (vertical,
+//          horizontal or diagonal) that a player could
+//          win with, and the windows that pass through
+//          each cell. Cells are numbered as BoardArray's
+//          bits are, col * (height + 1) + the row counted
+//          from the bottom.
+//
+//          The lists depend only on the size of the
+//          board, so they are made once for each size and
+//          shared (see forSize). They are kept in flat
+//          primitive arrays, where window w's cells are at
+//          w * objective, and cell c's windows are from
+//          cellStart[c] up to cellStart[c + 1].
+//
+//------------------------------------------------------
+
+import java.util.HashMap;
+
+public class LineTable
+{
+	private static final HashMap<Long, LineTable> TABLES = new HashMap<Long, LineTable>(); // one table per size
+
+	private final int width;
+	private final int height;
+	private final int objective;
+	private final int columnBits; // the number of bit positions used by a column, as in BoardArray
+	private final int windowCount;
+	private final int[] windowCells; // the cells of each window, objective at a time
+	private final int[] cellStart; // where each cell's windows start in cellWindows
+	private final int[] cellWindows; // the windows passing through each cell, grouped by cell
+
+	// returns the shared table for the given size of board, making it the first time it is asked for
+	public static synchronized LineTable forSize(int width, int height, int objective)
+	{
+		long key = ((long) width << 42) | ((long) height << 21) | objective;
+		LineTable table = TABLES.get(key);
+
+		if (table == null)
+		{
+			table = new LineTable(width, height, objective);
+			TABLES.put(key, table);
+		}
+
+		return table;
+	}
+
+	// ------------------------------------------------------
+	//
+	// LineTable
+	//
+	// PURPOSE: The purpose of this constructor is to find
+	// every window of the board, by starting one at each
+	// cell in each of the four directions wherever it fits
+	// on the board, then to group the windows by the cells
+	// they pass through.
+	//
+	// PARAMETERS:
+	// - width: the number of columns on the board.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	//
+	// ------------------------------------------------------
+	private LineTable(int width, int height, int objective)
+	{
+		int[][] directions = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } }; // (column, row) steps along a window
+		int cells = width * (height + 1);
+		int[] cellCounts = new int[cells];
+		int count = 0;
+
+		this.width = width;
+		this.height = height;
+		this.objective = objective;
+		this.columnBits = height + 1;
+
+		// a window fits wherever its last cell is still on the board, so the windows can be counted first
+		for (int[] step : directions)
+		{
+			count += Math.max(0, width - (objective - 1) * Math.abs(step[0]))
+					* Math.max(0, height - (objective - 1) * Math.abs(step[1]));
+		}
+
+		this.windowCells = new int[count * objective];
+		count = 0;
+
+		for (int[] step : directions)
+		{
+			for (int col = 0; col < width; col++)
+			{
+				for (int row = 0; row < height; row++)
+				{
+					int lastCol = col + (objective - 1) * step[0];
+					int lastRow = row + (objective - 1) * step[1];
+
+					if (lastCol < width && lastRow >= 0 && lastRow < height)
+					{
+						for (int i = 0; i < objective; i++)
+						{
+							int cell = (col + i * step[0]) * this.columnBits + row + i * step[1];
+
+							this.windowCells[count * objective + i] = cell;
+							cellCounts[cell]++;
+						}
+
+						count++;
+					}
+				}
+			}
+		}
+
+		this.windowCount = count;
+		this.cellStart = new int[cells + 1];
+
+		for (int cell = 0; cell < cells; cell++)
+		{
+			this.cellStart[cell + 1] = this.cellStart[cell] + cellCounts[cell];
+		}
+
+		this.cellWindows = new int[this.cellStart[cells]];
+
+		int[] next = new int[cells]; // the number of windows added to each cell's group so far
+
+		for (int window = 0; window < count; window++)
+		{
+			for (int i = 0; i < objective; i++)
+			{
+				int cell = this.windowCells[window * objective + i];
+
+				this.cellWindows[this.cellStart[cell] + next[cell]++] = window;
+			}
+		}
+	}
+
+	// various getters for the class
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	public int getHeight()
+	{
+		return this.height;
+	}
+
+	public int getObjective()
+	{
+		return this.objective;
+	}
+
+	// the number of cell numbers, including each column's unused sentinel bit
+	public int getCellCount()
+	{
+		return this.width * this.columnBits;
+	}
+
+	public int getWindowCount()
+	{
+		return this.windowCount;
+	}
+
+	// the given cell of the given window, from 0 to objective - 1
+	public int getWindowCell(int window, int i)
+	{
+		return this.windowCells[window * this.objective + i];
+	}
+
+	// the range of the given cell's windows, to be read with getCellWindow
+	public int getCellStart(int cell)
+	{
+		return this.cellStart[cell];
+	}
+
+	public int getCellEnd(int cell)
+	{
+		return this.cellStart[cell + 1];
+	}
+
+	public int getCellWindow(int i)
+	{
+		return this.cellWindows[i];
+	}
+}
@@ -15,12 +15,34 @@
 //          horizontal, or diagonal) before the opponent
 //          AI does.
 //
+//          The board's width and height, and the number
+//          of tokens in a line needed to win, may be given
+//          as arguments (e.g. "9 7 5"). Otherwise the usual
+//          7 by 6 board with four in a row is used. With
+//          "-ponder", the AI keeps thinking while waiting
+//          for the player's move.
+//
 //------------------------------------------------------
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 public class Main
 {
 	public static void main(String[] args)
 	{
-		new ConnectBoard();
+		ArrayList<String> sizes = new ArrayList<String>(Arrays.asList(args));
+		boolean pondering = sizes.remove("-ponder");
+
+		if (sizes.size() >= 3)
+		{
+			new ConnectBoard(Integer.parseInt(sizes.get(0)), Integer.parseInt(sizes.get(1)),
+					Integer.parseInt(sizes.get(2)), pondering);
+		}
+		else
+		{
+			new ConnectBoard(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE,
+					pondering);
+		}
 	}
 }
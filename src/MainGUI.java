@@ -1,6 +1,17 @@
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 public class MainGUI {
 	public static void main (String[] args) { 
-		new ConnectBoard();
+		// "-ponder" lets the AI think on the player's time
+		ArrayList<String> sizes = new ArrayList<String>(Arrays.asList(args));
+		boolean pondering = sizes.remove("-ponder");
+		if (sizes.size() >= 3) {
+			// a board of the given width and height, with the given number of tokens in a line needed to win
+			new ConnectBoard(Integer.parseInt(sizes.get(0)), Integer.parseInt(sizes.get(1)), Integer.parseInt(sizes.get(2)), pondering);
+		} else {
+			new ConnectBoard(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE, pondering);
+		}
 	}
 }
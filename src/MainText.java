@@ -1,6 +1,19 @@
 
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
 public class MainText {
 	public static void main (String[] args) { 
-		new TextBoard();
+		// "-compact" draws each board on one line, for scripts and bots, and "-ponder" lets the AI think on the player's time
+		ArrayList<String> sizes = new ArrayList<String>(Arrays.asList(args));
+		boolean compact = sizes.remove("-compact");
+		boolean pondering = sizes.remove("-ponder");
+		if (sizes.size() >= 3) {
+			// a board of the given width and height, with the given number of tokens in a line needed to win
+			new TextBoard(Integer.parseInt(sizes.get(0)), Integer.parseInt(sizes.get(1)), Integer.parseInt(sizes.get(2)), compact, pondering);
+		} else {
+			new TextBoard(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE, compact, pondering);
+		}
 	}
 }
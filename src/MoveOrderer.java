@@ -0,0 +1,304 @@
+//------------------------------------------------------
+//
+// CLASS: MoveOrderer
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to put the moves
+//          of a board in the order a search should try
+//          them. Alpha-beta pruning skips the rest of a
+//          board's moves as soon as one is good enough,
+//          so the sooner the best move is tried, the less
+//          is searched. The moves are tried in this order:
+//
+//          1. the move from the previous iteration's
+//             principal variation, then the transposition
+//             table's best move,
+//          2. a move that wins straight away, or failing
+//             that, the move that blocks the opponent's win
+//             (see BoardArray.getWinningColumn),
+//          3. the killer moves, the two most recent moves
+//             at the same ply that caused a cutoff in
+//             another part of the search,
+//          4. the other moves, by their history score, the
+//             total of depth * depth over every cutoff the
+//             move (a column and the cell it lands in) has
+//             caused for that player, with ties broken by
+//             how close the column is to the middle.
+//
+//          The killer moves and history scores are kept in
+//          primitive arrays, so ordering never allocates.
+//          Each search should have its own orderer.
+//
+//          The orderer also counts the cutoffs it is told
+//          of, and how many of them came from the first
+//          move tried, which is how well the ordering is
+//          working: the closer the rate is to 1, the less
+//          the search has to look at.
+//
+//------------------------------------------------------
+
+import java.util.Arrays;
+
+public class MoveOrderer
+{
+	private static final int KILLERS = 2; // the number of killer moves kept at each ply
+	private static final int HISTORY_LIMIT = 1 << 24; // history scores are halved once one passes this
+
+	private int width;
+	private int columnBits; // the number of cells a column uses in the history, one more than the height
+	private int[] centerOrder; // the columns, ordered from the middle of the board outwards
+	private int[] killers; // the killer moves of each ply, KILLERS at a time, or -1
+	private int[][] history; // the history score of each cell, for ONE then TWO
+	private int[] scores; // scratch space for the history scores of the moves being sorted
+	private long cutoffs; // the number of cutoffs since the last call to newSearch
+	private long firstMoveCutoffs; // the number of those cutoffs that came from the first move tried
+
+	// generic constructor, for a board of the given size and searches of up to maxPly moves
+	public MoveOrderer(int width, int height, int maxPly)
+	{
+		this.width = width;
+		this.columnBits = height + 1;
+		this.centerOrder = new int[width];
+		this.killers = new int[maxPly * KILLERS];
+		this.history = new int[2][width * this.columnBits];
+		this.scores = new int[width];
+
+		// alternate either side of the middle column: for 7 columns, this is 3, 2, 4, 1, 5, 0, 6
+		int middle = width / 2; // the right of the two middle columns, for an even width
+
+		for (int i = 0; i < width; i++)
+		{
+			int offset = (i + 1) / 2;
+			this.centerOrder[i] = (i % 2 == 1) ? middle - offset : middle + offset;
+		}
+
+		Arrays.fill(this.killers, -1);
+	}
+
+	// the columns from the middle of the board outwards, for a search to fall back on
+	public int getCenterMove(int i)
+	{
+		return this.centerOrder[i];
+	}
+
+	// various getters for the class, describing the cutoffs since the last call to newSearch
+	public long getCutoffs()
+	{
+		return this.cutoffs;
+	}
+
+	public long getFirstMoveCutoffs()
+	{
+		return this.firstMoveCutoffs;
+	}
+
+	// the share of cutoffs that came from the first move tried, or 0 if there were none
+	public double getFirstMoveCutoffRate()
+	{
+		return (this.cutoffs > 0) ? (double) this.firstMoveCutoffs / this.cutoffs : 0.0;
+	}
+
+	// ------------------------------------------------------
+	//
+	// newSearch
+	//
+	// PURPOSE: The purpose of this method is to get ready
+	// for a search of a new board. The killer moves belong
+	// to the previous board's plies, so they are forgotten,
+	// while the history scores are halved, so that they
+	// still help but the new search's cutoffs soon count for
+	// more. The cutoff counts start again.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void newSearch()
+	{
+		Arrays.fill(this.killers, -1);
+		ageHistory();
+		this.cutoffs = 0;
+		this.firstMoveCutoffs = 0;
+	}
+
+	// forgets the killer moves and history scores altogether, such as before a search of another game
+	public void clear()
+	{
+		Arrays.fill(this.killers, -1);
+
+		for (int p = 0; p < 2; p++)
+		{
+			Arrays.fill(this.history[p], 0);
+		}
+
+		this.cutoffs = 0;
+		this.firstMoveCutoffs = 0;
+	}
+
+	// ------------------------------------------------------
+	//
+	// order
+	//
+	// PURPOSE: The purpose of this method is to fill in the
+	// list of moves for the given board, in the order given
+	// in the class's remarks. Each playable column is in
+	// the list exactly once.
+	//
+	// PARAMETERS:
+	// - board: the board whose moves are ordered.
+	// - token: the token of the player to move.
+	// - ply: the number of moves since the root of the
+	// search.
+	// - pvMove: the principal variation's move, or -1.
+	// - tableMove: the transposition table's best move, or
+	// -1.
+	// - moves: the list to fill in, with room for a move
+	// in every column.
+	//
+	// RETURNS: the number of moves in the list.
+	//
+	// ------------------------------------------------------
+	public int order(BoardArray board, Status token, int ply, int pvMove, int tableMove, int[] moves)
+	{
+		int count = 0;
+		int winningMove = board.getWinningColumn(token);
+
+		count = addMove(board, pvMove, moves, count);
+		count = addMove(board, tableMove, moves, count);
+
+		if (winningMove != -1)
+		{
+			count = addMove(board, winningMove, moves, count);
+		}
+		else
+		{
+			count = addMove(board, board.getWinningColumn((token == Status.ONE) ? Status.TWO : Status.ONE), moves,
+					count);
+		}
+
+		for (int i = 0; i < KILLERS; i++)
+		{
+			count = addMove(board, this.killers[ply * KILLERS + i], moves, count);
+		}
+
+		int[] history = this.history[(token == Status.ONE) ? 0 : 1];
+		int first = count; // the start of the moves sorted by history
+
+		// an insertion sort, which keeps the middle-first order of moves with equal scores
+		for (int i = 0; i < this.width; i++)
+		{
+			int col = this.centerOrder[i];
+
+			if (board.canPlay(col) && !contains(moves, count, col))
+			{
+				int score = history[col * this.columnBits + board.getColumnHeight(col)];
+				int j = count;
+
+				while (j > first && this.scores[j - 1] < score)
+				{
+					moves[j] = moves[j - 1];
+					this.scores[j] = this.scores[j - 1];
+					j--;
+				}
+
+				moves[j] = col;
+				this.scores[j] = score;
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	// ------------------------------------------------------
+	//
+	// recordCutoff
+	//
+	// PURPOSE: The purpose of this method is to learn from a
+	// move that was good enough to cut off the search of
+	// the rest of a board's moves. It becomes the first
+	// killer move of its ply, and its history score goes up
+	// by more the deeper the search below it was.
+	//
+	// PARAMETERS:
+	// - board: the board the move was played on, with the
+	// move taken back.
+	// - token: the token of the player who played it.
+	// - ply: the ply of the move.
+	// - col: the column of the move.
+	// - moveIndex: where the move was in the ordered list,
+	// where 0 is the first move tried.
+	// - depth: the number of moves that were left to look
+	// ahead on the board.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void recordCutoff(BoardArray board, Status token, int ply, int col, int moveIndex, int depth)
+	{
+		int slot = ply * KILLERS;
+
+		this.cutoffs++;
+
+		if (moveIndex == 0)
+		{
+			this.firstMoveCutoffs++;
+		}
+
+		if (this.killers[slot] != col)
+		{
+			this.killers[slot + 1] = this.killers[slot];
+			this.killers[slot] = col;
+		}
+
+		int[] history = this.history[(token == Status.ONE) ? 0 : 1];
+		int cell = col * this.columnBits + board.getColumnHeight(col);
+
+		history[cell] += depth * depth;
+
+		if (history[cell] > HISTORY_LIMIT)
+		{
+			ageHistory();
+		}
+	}
+
+	// halves every history score
+	private void ageHistory()
+	{
+		for (int p = 0; p < 2; p++)
+		{
+			for (int i = 0; i < this.history[p].length; i++)
+			{
+				this.history[p][i] >>= 1;
+			}
+		}
+	}
+
+	// adds the column to the end of the list if it can be played and is not already in it
+	private int addMove(BoardArray board, int col, int[] moves, int count)
+	{
+		int result = count;
+
+		if (col >= 0 && board.canPlay(col) && !contains(moves, count, col))
+		{
+			moves[result++] = col;
+		}
+
+		return result;
+	}
+
+	// checks whether the column is one of the first count moves of the list
+	private boolean contains(int[] moves, int count, int col)
+	{
+		boolean found = false;
+
+		for (int i = 0; i < count && !found; i++)
+		{
+			found = moves[i] == col;
+		}
+
+		return found;
+	}
+}
@@ -0,0 +1,574 @@
+
+//------------------------------------------------------
+//
+// CLASS: NegamaxSearch
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to hold the
+//          state of one negamax search (see
+//          DifficultyThree), so that several searches
+//          can run at once on different threads. Each
+//          search has its own copy of the board and its
+//          own move lists, but searches may share one
+//          TranspositionTable, which is how the work
+//          done by one thread helps the others.
+//
+//          The search is iteratively deepened: it
+//          searches one move ahead, then two, and so on,
+//          until it runs out of its time or node budget,
+//          another thread sets the stop signal, or its
+//          own thread is interrupted. The move from the
+//          deepest search that was finished is kept. Each
+//          search tries the best line of play (the
+//          principal variation) found by the previous one
+//          first, and the rest of the moves are put in
+//          order by a MoveOrderer.
+//
+//          When it is given an EndgameTable, a board the
+//          table covers is scored exactly from the table
+//          rather than searched or evaluated, so the search
+//          stops there wherever it reaches the end of the
+//          game.
+//
+//------------------------------------------------------
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class NegamaxSearch
+{
+	private static final int WIN_SCORE = 1000000; // the score of a won board, well above any evaluation
+	private static final int MAX_PLY = 128; // deeper than any search can go (see DifficultyThree.MAX_DEPTH), used to recognize won boards
+	private static final int CHECK_INTERVAL = 1023; // the number of nodes between checks of the clock, minus one
+
+	private BoardArray board; // the board being searched, copied from the board given to search()
+	private BoardEvaluator evaluator;
+	private TranspositionTable table;
+	private EndgameTable endgame; // the exact scores of boards near the end of the game, or null
+	private int depthOffset; // how many depths this search skips at the start, so helper threads search deeper
+	private MoveOrderer orderer; // puts each board's moves in the order they are searched
+	private int[][] orderedMoves; // the moves to search at each ply, in the order they will be searched
+	private int[][] pvTable; // the best line of play found from each ply, filled in as the search returns
+	private int[] pvLength; // the ply at which each line in pvTable ends
+	private int[] previousPv; // the best line of play found by the previous iteration
+	private int previousPvLength;
+	private boolean followingPv; // whether the moves played so far match previousPv
+	private long deadline; // the System.nanoTime() value at which the current search must stop
+	private long nodeBudget; // the number of boards allowed to be visited, or 0 for no limit
+	private long nodes; // the number of boards visited by the current search
+	private boolean aborted; // whether the current search ran out of budget
+	private AtomicBoolean stopSignal; // shared with the other searches, and set to end them all early
+	private int completedDepth; // the depth of the last iteration that finished
+	private int bestScore; // the score of the best move from the last iteration that finished
+
+	// generic constructor, where helperId is 0 for the main search and counts up for each helper thread
+	public NegamaxSearch(TranspositionTable table, BoardEvaluator evaluator, int helperId, AtomicBoolean stopSignal)
+	{
+		this.stopSignal = stopSignal;
+		this.table = table;
+		this.evaluator = evaluator;
+		this.depthOffset = helperId % 2;
+		this.pvTable = new int[MAX_PLY][MAX_PLY];
+		this.pvLength = new int[MAX_PLY];
+		this.previousPv = new int[MAX_PLY];
+		setUpBoard(new BoardArray());
+	}
+
+	// sizes the search's board and move lists to match the given board, which search() does again if it changes
+	private void setUpBoard(BoardArray position)
+	{
+		this.board = new BoardArray(position.getWidth(), position.getHeight(), position.getObjective());
+		this.orderer = new MoveOrderer(this.board.getWidth(), this.board.getHeight(), MAX_PLY);
+		this.orderedMoves = new int[MAX_PLY][this.board.getWidth()];
+	}
+
+	// forgets the killer moves and history scores of earlier searches (the table is cleared by its owner)
+	public void clearHistory()
+	{
+		this.orderer.clear();
+	}
+
+	// the table to look up boards near the end of the game in, or null to search them all
+	public void setEndgameTable(EndgameTable endgame)
+	{
+		this.endgame = endgame;
+	}
+
+	// various getters for the class, describing the most recent search
+	public int getCompletedDepth()
+	{
+		return this.completedDepth;
+	}
+
+	public int getBestScore()
+	{
+		return this.bestScore;
+	}
+
+	public long getNodes()
+	{
+		return this.nodes;
+	}
+
+	// how well the moves were ordered, as the share of cutoffs that came from the first move tried
+	public double getFirstMoveCutoffRate()
+	{
+		return this.orderer.getFirstMoveCutoffRate();
+	}
+
+	public long getCutoffs()
+	{
+		return this.orderer.getCutoffs();
+	}
+
+	// the move at the given ply of the deepest finished iteration's principal variation, or -1 if it is shorter
+	public int getPrincipalMove(int ply)
+	{
+		return (ply < this.previousPvLength) ? this.previousPv[ply] : -1;
+	}
+
+	// ------------------------------------------------------
+	//
+	// search
+	//
+	// PURPOSE: The purpose of this method is to search the
+	// given board one move deeper at a time, keeping the
+	// best move and principal variation of each iteration
+	// that finishes, until the maximum depth is reached,
+	// the budget runs out, the stop signal is set, or a
+	// forced win or loss is found. An iteration that is
+	// stopped part way through is thrown away.
+	//
+	// PARAMETERS:
+	// - position: the board to search, which is copied and
+	// left unchanged.
+	// - token: the token of the player to move.
+	// - maxDepth: the furthest number of moves to look ahead.
+	// - deadline: the System.nanoTime() value at which the
+	// search must stop.
+	// - nodeBudget: the number of boards allowed to be
+	// visited, or 0 for no limit.
+	//
+	// RETURNS: the chosen column.
+	//
+	// ------------------------------------------------------
+	public int search(BoardArray position, Status token, int maxDepth, long deadline, long nodeBudget)
+	{
+		int chosenColumn = -1;
+		boolean decided = false;
+
+		if (!this.board.isSameSize(position))
+		{
+			setUpBoard(position);
+		}
+
+		this.board.copyFrom(position);
+
+		int emptyCells = this.board.getWidth() * this.board.getHeight() - this.board.getMoveCount();
+
+		// until the first iteration finishes, fall back to the most central column that can be played
+		for (int i = 0; i < this.board.getWidth() && chosenColumn == -1; i++)
+		{
+			if (this.board.canPlay(this.orderer.getCenterMove(i)))
+			{
+				chosenColumn = this.orderer.getCenterMove(i);
+			}
+		}
+
+		this.orderer.newSearch();
+
+		this.deadline = deadline;
+		this.nodeBudget = nodeBudget;
+		this.nodes = 0;
+		this.aborted = false;
+		this.previousPvLength = 0;
+		this.completedDepth = 0;
+		this.bestScore = 0;
+
+		// a search as deep as the number of empty cells plays every game out to the end, so it is exact
+		int lastDepth = Math.min(maxDepth, emptyCells);
+
+		for (int depth = Math.min(1 + this.depthOffset, lastDepth); depth <= lastDepth && !this.aborted && !decided;
+				depth++)
+		{
+			this.followingPv = true;
+
+			int score = negamaxRoot(token, depth);
+
+			if (!this.aborted)
+			{
+				chosenColumn = this.pvTable[0][0];
+				this.completedDepth = depth;
+				this.bestScore = score;
+				this.previousPvLength = this.pvLength[0];
+				System.arraycopy(this.pvTable[0], 0, this.previousPv, 0, this.previousPvLength);
+
+				// there is no need to look any deeper once the result of the game is known
+				decided = Math.abs(score) > WIN_SCORE - MAX_PLY;
+			}
+		}
+
+		return chosenColumn;
+	}
+
+	// ------------------------------------------------------
+	//
+	// negamaxRoot
+	//
+	// PURPOSE: The purpose of this method is to search each
+	// of the possible moves to the given depth, and record
+	// the best one as the start of the principal variation.
+	//
+	// PARAMETERS:
+	// - token: the token of the player to move.
+	// - depth: the number of moves to look ahead.
+	//
+	// RETURNS: the score of the best move.
+	//
+	// ------------------------------------------------------
+	private int negamaxRoot(Status token, int depth)
+	{
+		int best = -WIN_SCORE - 1;
+		int count = orderMoves(token, 0, -1);
+
+		this.pvLength[0] = 0;
+
+		for (int i = 0; i < count && !this.aborted; i++)
+		{
+			int col = this.orderedMoves[0][i];
+
+			if (i > 0)
+			{
+				this.followingPv = false;
+			}
+
+			int score = -negamax(col, token, 1, depth - 1, -WIN_SCORE - 1, -best);
+
+			if (!this.aborted && score > best)
+			{
+				best = score;
+				updatePv(0, col);
+			}
+		}
+
+		return best;
+	}
+
+	// ------------------------------------------------------
+	//
+	// negamax
+	//
+	// PURPOSE: The purpose of this method is to play the
+	// given move, score the resulting board from the point
+	// of view of the player who must move next, then take
+	// the move back. Scores are negated at each level, so
+	// each player always maximizes their own score. Any
+	// move whose score reaches beta is good enough that the
+	// opponent would never allow it, so the remaining moves
+	// are skipped (the alpha-beta cutoff).
+	//
+	// A board in the endgame table is given its exact score
+	// without being searched. Before searching any other
+	// board, the transposition table is checked. A stored result from a search at least as
+	// deep can narrow the alpha-beta window or end the
+	// search of this board outright, and the stored best
+	// move is searched early.
+	//
+	// PARAMETERS:
+	// - col: the column to play.
+	// - token: the token being played.
+	// - ply: the number of moves since the root of the
+	// search, used to prefer quicker wins.
+	// - depth: the number of moves left to look ahead.
+	// - alpha: the score the player to move is already
+	// guaranteed elsewhere.
+	// - beta: the score the opponent is already
+	// guaranteed elsewhere.
+	//
+	// RETURNS: the score of the board after the move, from
+	// the point of view of the player to move next.
+	//
+	// ------------------------------------------------------
+	private int negamax(int col, Status token, int ply, int depth, int alpha, int beta)
+	{
+		int score;
+		Status opponent = (token == Status.ONE) ? Status.TWO : Status.ONE;
+
+		this.board.dropToken(col, token);
+		this.nodes++;
+		this.pvLength[ply] = ply;
+
+		if ((this.nodes & CHECK_INTERVAL) == 0 && budgetSpent())
+		{
+			this.aborted = true;
+		}
+
+		// the table only holds boards where the game is not over, and turns away boards with too many empty cells
+		int endgameScore = (this.endgame != null) ? this.endgame.probe(this.board) : EndgameTable.NOT_FOUND;
+
+		if (this.board.isWin(token))
+		{
+			score = -(WIN_SCORE - ply); // the player to move has lost
+		}
+		else if (this.board.isFull())
+		{
+			score = 0;
+		}
+		else if (endgameScore != EndgameTable.NOT_FOUND)
+		{
+			score = fromEndgameScore(endgameScore, ply);
+		}
+		else if (depth == 0 || this.aborted)
+		{
+			score = this.evaluator.evaluate(this.board, opponent);
+		}
+		else
+		{
+			// a board and its mirror image share an entry, with the move stored as played on the canonical one
+			long key = this.board.getCanonicalHash();
+			long entry = this.table.probe(key);
+			int tableMove = -1;
+
+			score = -WIN_SCORE - 1;
+
+			if (entry != TranspositionTable.EMPTY)
+			{
+				tableMove = this.board.canonicalMove(TranspositionTable.getMove(entry));
+
+				// a stored result is not used on the principal variation, so that the line is kept whole
+				if (TranspositionTable.getDepth(entry) >= depth && !this.followingPv)
+				{
+					int storedScore = fromTableScore(TranspositionTable.getScore(entry), ply);
+					int bound = TranspositionTable.getBound(entry);
+
+					if (bound == TranspositionTable.EXACT
+							|| (bound == TranspositionTable.LOWER && storedScore >= beta)
+							|| (bound == TranspositionTable.UPPER && storedScore <= alpha))
+					{
+						score = storedScore;
+					}
+				}
+			}
+
+			if (score == -WIN_SCORE - 1)
+			{
+				int originalAlpha = alpha;
+				int bestMove = -1;
+				int count = orderMoves(opponent, ply, tableMove);
+
+				for (int i = 0; i < count && score < beta && !this.aborted; i++)
+				{
+					int nextCol = this.orderedMoves[ply][i];
+
+					if (i > 0)
+					{
+						this.followingPv = false;
+					}
+
+					int nextScore = -negamax(nextCol, opponent, ply + 1, depth - 1, -beta, -Math.max(alpha, score));
+
+					if (nextScore > score)
+					{
+						score = nextScore;
+						bestMove = nextCol;
+
+						if (score > alpha)
+						{
+							updatePv(ply, nextCol);
+						}
+
+						if (score >= beta && !this.aborted)
+						{
+							this.orderer.recordCutoff(this.board, opponent, ply, nextCol, i, depth);
+						}
+					}
+				}
+
+				if (!this.aborted)
+				{
+					int bound = TranspositionTable.EXACT;
+
+					if (score <= originalAlpha)
+					{
+						bound = TranspositionTable.UPPER;
+					}
+					else if (score >= beta)
+					{
+						bound = TranspositionTable.LOWER;
+					}
+
+					this.table.store(key, depth, toTableScore(score, ply), bound, this.board.canonicalMove(bestMove));
+				}
+			}
+		}
+
+		this.board.undoToken(col);
+
+		return score;
+	}
+
+	// ------------------------------------------------------
+	//
+	// orderMoves
+	//
+	// PURPOSE: The purpose of this method is to fill in the
+	// list of moves to search at the given ply, in the order
+	// they should be searched (see MoveOrderer), starting
+	// with the move from the previous iteration's principal
+	// variation while the search is still following it.
+	//
+	// PARAMETERS:
+	// - token: the token of the player to move.
+	// - ply: the ply whose move list is filled in.
+	// - tableMove: the transposition table's best move, or
+	// -1 if there is none.
+	//
+	// RETURNS: the number of moves in the list.
+	//
+	// ------------------------------------------------------
+	private int orderMoves(Status token, int ply, int tableMove)
+	{
+		int pvMove = -1;
+
+		if (this.followingPv && ply < this.previousPvLength)
+		{
+			pvMove = this.previousPv[ply];
+		}
+		else
+		{
+			this.followingPv = false;
+		}
+
+		return this.orderer.order(this.board, token, ply, pvMove, tableMove, this.orderedMoves[ply]);
+	}
+
+	// ------------------------------------------------------
+	//
+	// updatePv
+	//
+	// PURPOSE: The purpose of this method is to record a new
+	// best move at the given ply, followed by the best line
+	// of play found after it.
+	//
+	// PARAMETERS:
+	// - ply: the ply of the new best move.
+	// - col: the new best move.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void updatePv(int ply, int col)
+	{
+		this.pvTable[ply][ply] = col;
+
+		for (int i = ply + 1; i < this.pvLength[ply + 1]; i++)
+		{
+			this.pvTable[ply][i] = this.pvTable[ply + 1][i];
+		}
+
+		this.pvLength[ply] = Math.max(this.pvLength[ply + 1], ply + 1);
+	}
+
+	// checks whether the search has been stopped (or its thread interrupted) or has used up its time or node budget
+	private boolean budgetSpent()
+	{
+		return this.stopSignal.get() || Thread.currentThread().isInterrupted() || System.nanoTime() >= this.deadline
+				|| (this.nodeBudget > 0 && this.nodes >= this.nodeBudget);
+	}
+
+	// ------------------------------------------------------
+	//
+	// fromEndgameScore
+	//
+	// PURPOSE: The purpose of this method is to convert an
+	// endgame table's score into the search's own score for
+	// the board at the given ply. The table counts how soon
+	// the game is won in pairs of moves (see
+	// PerfectSolver), and the winner's last token is always
+	// dropped on a board with a number of tokens of the same
+	// parity as the boards the winner moves on, which gives
+	// the exact ply of the winning move.
+	//
+	// PARAMETERS:
+	// - endgameScore: the table's score for the player to
+	// move, which is not NOT_FOUND.
+	// - ply: the ply of the move that made the board.
+	//
+	// RETURNS: the score of the board for the player to
+	// move, relative to the root.
+	//
+	// ------------------------------------------------------
+	private int fromEndgameScore(int endgameScore, int ply)
+	{
+		int score = 0; // a draw
+
+		if (endgameScore != 0)
+		{
+			int moves = this.board.getMoveCount();
+			int winnerMoves = (endgameScore > 0) ? moves : moves + 1; // a number of tokens the winner moves on
+			int lastMoves = this.board.getWidth() * this.board.getHeight() + 1 - 2 * Math.abs(endgameScore);
+
+			if ((lastMoves - winnerMoves) % 2 != 0)
+			{
+				lastMoves--;
+			}
+
+			int winPly = ply + lastMoves - moves + 1; // the ply of the winning move
+
+			score = (endgameScore > 0) ? WIN_SCORE - winPly : -(WIN_SCORE - winPly);
+		}
+
+		return score;
+	}
+
+	// ------------------------------------------------------
+	//
+	// toTableScore
+	//
+	// PURPOSE: The purpose of this method is to convert a
+	// score found at the given ply into the score stored in
+	// the transposition table. The score of a won or lost
+	// board depends on how far it is from the root of the
+	// search, so it is stored as the distance from the
+	// board being stored instead.
+	//
+	// PARAMETERS:
+	// - score: the score, relative to the root.
+	// - ply: the ply of the board being stored.
+	//
+	// RETURNS: the score to store.
+	//
+	// ------------------------------------------------------
+	private int toTableScore(int score, int ply)
+	{
+		int tableScore = score;
+
+		if (score > WIN_SCORE - MAX_PLY)
+		{
+			tableScore = score + ply;
+		}
+		else if (score < -WIN_SCORE + MAX_PLY)
+		{
+			tableScore = score - ply;
+		}
+
+		return tableScore;
+	}
+
+	// the reverse of toTableScore, for a score read from the table at the given ply
+	private int fromTableScore(int tableScore, int ply)
+	{
+		int score = tableScore;
+
+		if (tableScore > WIN_SCORE - MAX_PLY)
+		{
+			score = tableScore - ply;
+		}
+		else if (tableScore < -WIN_SCORE + MAX_PLY)
+		{
+			score = tableScore + ply;
+		}
+
+		return score;
+	}
+}
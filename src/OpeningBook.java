@@ -0,0 +1,188 @@
+
+//------------------------------------------------------
+//
+// CLASS: OpeningBook
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to look up the
+//          exact scores of opening boards (see
+//          PerfectSolver) from a file built ahead of time
+//          by OpeningBookBuilder.
+//
+//          The file starts with a header of four ints: a
+//          magic number, the board's width and height,
+//          and the number of boards. Then come the boards'
+//          canonical position keys (see BoardArray), as
+//          longs in ascending order, followed by each
+//          board's score as a single byte, in the same
+//          order. A board and its mirror image share one
+//          canonical key, so only one of them is stored.
+//
+//          The file is memory-mapped rather than read, so
+//          opening a book is quick however large it is,
+//          and only the parts of it that are looked at are
+//          ever loaded. A lookup is a binary search of the
+//          keys, read straight from the mapped file. As a
+//          book is only ever read, each file is mapped once
+//          (see forPath) and shared by every AI and thread.
+//
+//------------------------------------------------------
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+public class OpeningBook
+{
+	public static final int MAGIC = 0x43344F4D; // "C4OM", for books keyed by canonical (mirrored) keys
+	public static final int NOT_FOUND = Integer.MIN_VALUE; // returned by lookup for a board not in the book
+
+	private static final int HEADER_SIZE = 16; // bytes
+
+	private static HashMap<String, OpeningBook> shared = new HashMap<String, OpeningBook>(); // mapped books, by path
+
+	private MappedByteBuffer buffer;
+	private int count; // the number of boards in the book
+	private int scoresStart; // the offset of the first score in the file
+
+	// generic constructor, which maps the given book file
+	public OpeningBook(String path) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ))
+		{
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		BoardArray board = new BoardArray();
+
+		if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != board.getWidth()
+				|| this.buffer.getInt(8) != board.getHeight())
+		{
+			throw new IOException("Not an opening book for this board: " + path);
+		}
+
+		this.count = this.buffer.getInt(12);
+		this.scoresStart = HEADER_SIZE + this.count * 8;
+	}
+
+	// ------------------------------------------------------
+	//
+	// forPath
+	//
+	// PURPOSE: The purpose of this method is to find the
+	// book in the given file. The file is mapped the first
+	// time it is asked for and the same book is returned
+	// from then on, rather than mapping it again for each
+	// AI.
+	//
+	// PARAMETERS:
+	// - path: the book file.
+	//
+	// RETURNS: the book.
+	//
+	// ------------------------------------------------------
+	public static synchronized OpeningBook forPath(String path) throws IOException
+	{
+		OpeningBook book = shared.get(path);
+
+		// a file that cannot be mapped is not remembered, so it is found if it is built later
+		if (book == null)
+		{
+			book = new OpeningBook(path);
+			shared.put(path, book);
+		}
+
+		return book;
+	}
+
+	public int size()
+	{
+		return this.count;
+	}
+
+	// ------------------------------------------------------
+	//
+	// lookup
+	//
+	// PURPOSE: The purpose of this method is to find the
+	// score of the board with the given canonical key, with
+	// a binary search of the sorted keys.
+	//
+	// PARAMETERS:
+	// - key: the canonical position key of the board.
+	//
+	// RETURNS: the score of the board for the player to
+	// move, or NOT_FOUND if the board is not in the book.
+	//
+	// ------------------------------------------------------
+	public int lookup(long key)
+	{
+		int score = NOT_FOUND;
+		int low = 0;
+		int high = this.count - 1;
+
+		while (low <= high && score == NOT_FOUND)
+		{
+			int middle = (low + high) >>> 1;
+			long middleKey = this.buffer.getLong(HEADER_SIZE + middle * 8);
+
+			if (middleKey < key)
+			{
+				low = middle + 1;
+			}
+			else if (middleKey > key)
+			{
+				high = middle - 1;
+			}
+			else
+			{
+				score = this.buffer.get(this.scoresStart + middle);
+			}
+		}
+
+		return score;
+	}
+
+	// ------------------------------------------------------
+	//
+	// write
+	//
+	// PURPOSE: The purpose of this method is to write a book
+	// file in the format described above.
+	//
+	// PARAMETERS:
+	// - path: the file to write.
+	// - keys: the position keys, in ascending order.
+	// - scores: the score of each board, in the same order.
+	// - count: the number of boards to write.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public static void write(String path, long[] keys, byte[] scores, int count) throws IOException
+	{
+		BoardArray board = new BoardArray();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path))))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(board.getWidth());
+			out.writeInt(board.getHeight());
+			out.writeInt(count);
+
+			for (int i = 0; i < count; i++)
+			{
+				out.writeLong(keys[i]);
+			}
+
+			out.write(scores, 0, count);
+		}
+	}
+}
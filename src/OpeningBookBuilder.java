@@ -0,0 +1,175 @@
+
+//------------------------------------------------------
+//
+// CLASS: OpeningBookBuilder
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to build an
+//          opening book file (see OpeningBook) from the
+//          command line. Every board that can be reached
+//          with up to the given number of tokens, and
+//          where the game is not yet over, is solved
+//          exactly with a PerfectSolver, then the boards
+//          are sorted by their canonical position keys
+//          and written to the file. Only one of a board
+//          and its mirror image is solved and stored.
+//
+//          Solving boards near the start of the game is
+//          very slow, so the book can also be built for
+//          only the boards that follow a given opening,
+//          written as a string of columns from 1 to 7
+//          (e.g. "44" for both players in the middle).
+//
+//          Usage: java OpeningBookBuilder <depth>
+//                 [<output file>] [<opening>]
+//
+//------------------------------------------------------
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class OpeningBookBuilder
+{
+	public static final String DEFAULT_PATH = "./opening-book.bin";
+
+	private static final int PROGRESS_INTERVAL = 1000; // the number of boards solved between progress reports
+
+	private BoardArray board;
+	private PerfectSolver solver;
+	private int depth; // the largest number of tokens on a board in the book
+	private HashSet<Long> seen; // the canonical position keys of the boards already found
+	private long[] entries; // each board's position key, shifted up a byte, with its score in the low byte
+	private int count; // the number of boards found
+	private long start; // the System.nanoTime() value when building started
+
+	// generic constructor
+	public OpeningBookBuilder(int depth)
+	{
+		this.board = new BoardArray();
+		this.solver = new PerfectSolver();
+		this.depth = depth;
+		this.seen = new HashSet<Long>();
+		this.entries = new long[1024];
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1)
+		{
+			System.out.println("Usage: java OpeningBookBuilder <depth> [<output file>] [<opening>]");
+		}
+		else
+		{
+			String path = (args.length > 1) ? args[1] : DEFAULT_PATH;
+			String opening = (args.length > 2) ? args[2] : "";
+
+			new OpeningBookBuilder(Integer.parseInt(args[0])).build(path, opening);
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// build
+	//
+	// PURPOSE: The purpose of this method is to play the
+	// given opening, solve every board reachable from it,
+	// then sort the boards and write the book. Since a
+	// position key is less than 2^56, it can be shifted up
+	// a byte with the score stored underneath, so sorting
+	// the combined longs sorts the boards by key.
+	//
+	// PARAMETERS:
+	// - path: the file to write the book to.
+	// - opening: the columns of the opening, from 1 to 7.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void build(String path, String opening) throws IOException
+	{
+		Status token = Status.ONE;
+
+		for (int i = 0; i < opening.length(); i++)
+		{
+			this.board.dropToken(opening.charAt(i) - '1', token);
+			token = (token == Status.ONE) ? Status.TWO : Status.ONE;
+		}
+
+		this.start = System.nanoTime();
+		addBoards(token);
+		Arrays.sort(this.entries, 0, this.count);
+
+		long[] keys = new long[this.count];
+		byte[] scores = new byte[this.count];
+
+		for (int i = 0; i < this.count; i++)
+		{
+			keys[i] = this.entries[i] >>> 8;
+			scores[i] = (byte) this.entries[i];
+		}
+
+		OpeningBook.write(path, keys, scores, this.count);
+		System.out.println("Wrote " + this.count + " boards to " + path);
+	}
+
+	// ------------------------------------------------------
+	//
+	// addBoards
+	//
+	// PURPOSE: The purpose of this method is to solve the
+	// current board, if it has not been seen before, then
+	// do the same for every board reached by one more move,
+	// until the depth is reached. Boards where the game is
+	// over are not added, since the AI never needs to look
+	// them up.
+	//
+	// PARAMETERS:
+	// - token: the token of the player to move.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void addBoards(Status token)
+	{
+		// a board's mirror image has the same score, and the boards after it are the mirror images of its boards
+		if (this.seen.add(this.board.getCanonicalPositionKey()))
+		{
+			int score = this.solver.solve(this.board);
+
+			if (this.count == this.entries.length)
+			{
+				this.entries = Arrays.copyOf(this.entries, this.count * 2);
+			}
+
+			this.entries[this.count++] = (this.board.getCanonicalPositionKey() << 8) | (score & 0xFF);
+
+			if (this.count % PROGRESS_INTERVAL == 0)
+			{
+				System.out.println(this.count + " boards solved in "
+						+ (System.nanoTime() - this.start) / 1000000000L + "s");
+			}
+
+			if (this.board.getMoveCount() < this.depth)
+			{
+				Status opponent = (token == Status.ONE) ? Status.TWO : Status.ONE;
+
+				for (int col = 0; col < this.board.getWidth(); col++)
+				{
+					if (this.board.canPlay(col))
+					{
+						this.board.dropToken(col, token);
+
+						if (!this.board.isWin(token) && !this.board.isFull())
+						{
+							addBoards(opponent);
+						}
+
+						this.board.undoToken(col);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,236 @@
+
+//------------------------------------------------------
+//
+// CLASS: PerfectSolver
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to work out the
+//          exact result of a board when both players
+//          play perfectly, by searching every game out to
+//          its end. It is far too slow to use while
+//          playing from the start of a game, so it is
+//          used offline to build an OpeningBook.
+//
+//          The player to move is worked out from the
+//          number of tokens on the board, since
+//          Status.ONE always moves first. Scores are from
+//          the point of view of the player to move: 0 for
+//          a draw, and otherwise positive for a win and
+//          negative for a loss, where a larger number
+//          means the game ends sooner. A win with the
+//          player's own last token scores 1, and each
+//          pair of moves earlier scores one more.
+//
+//------------------------------------------------------
+
+public class PerfectSolver
+{
+	private static final int TABLE_SIZE_BITS = 22; // the transposition table has 2^22 buckets
+
+	private BoardArray board; // the board being solved, copied from the board given to solve()
+	private TranspositionTable table;
+	private int[] moveOrder; // the columns, ordered from the middle of the board outwards
+	private int cells; // the number of cells on the board
+	private long nodes; // the number of boards visited since the solver was created
+
+	// generic constructor
+	public PerfectSolver()
+	{
+		this.board = new BoardArray();
+		this.table = new TranspositionTable(TABLE_SIZE_BITS);
+		this.cells = this.board.getWidth() * this.board.getHeight();
+		this.moveOrder = new int[this.board.getWidth()];
+
+		// alternate either side of the middle column: for 7 columns, this is 3, 2, 4, 1, 5, 0, 6
+		int middle = this.board.getWidth() / 2; // the right of the two middle columns, for an even width
+
+		for (int i = 0; i < this.moveOrder.length; i++)
+		{
+			int offset = (i + 1) / 2;
+			this.moveOrder[i] = (i % 2 == 1) ? middle - offset : middle + offset;
+		}
+	}
+
+	public long getNodes()
+	{
+		return this.nodes;
+	}
+
+	// forgets every board solved so far, so that the next solve starts from nothing
+	public void clear()
+	{
+		this.table.clear();
+		this.nodes = 0;
+	}
+
+	// ------------------------------------------------------
+	//
+	// solve
+	//
+	// PURPOSE: The purpose of this method is to find the
+	// exact score of the given board. Rather than searching
+	// once with every score allowed, the range of possible
+	// scores is narrowed by repeatedly asking whether the
+	// score is above a guess, with a search whose window is
+	// only one score wide. Those searches cut off far more
+	// often, which makes them much faster.
+	//
+	// PARAMETERS:
+	// - position: the board to solve, which must not already
+	// be won, and is left unchanged.
+	//
+	// RETURNS: the score of the board for the player to
+	// move.
+	//
+	// ------------------------------------------------------
+	public int solve(BoardArray position)
+	{
+		this.board.copyFrom(position);
+
+		Status token = (this.board.getMoveCount() % 2 == 0) ? Status.ONE : Status.TWO;
+		int min = -(this.cells - this.board.getMoveCount()) / 2;
+		int max = (this.cells + 1 - this.board.getMoveCount()) / 2;
+
+		while (min < max)
+		{
+			int guess = min + (max - min) / 2;
+
+			// lean the guess towards 0, since most boards are close to a draw
+			if (guess <= 0 && min / 2 < guess)
+			{
+				guess = min / 2;
+			}
+			else if (guess >= 0 && max / 2 > guess)
+			{
+				guess = max / 2;
+			}
+
+			int score = negamax(token, guess, guess + 1);
+
+			if (score <= guess)
+			{
+				max = score;
+			}
+			else
+			{
+				min = score;
+			}
+		}
+
+		return min;
+	}
+
+	// ------------------------------------------------------
+	//
+	// negamax
+	//
+	// PURPOSE: The purpose of this method is to search the
+	// current board to the end of the game, with alpha-beta
+	// pruning. Since the best possible score shrinks with
+	// every move, beta can be lowered to the best score
+	// still possible before any move is searched, and that
+	// alone often causes a cutoff.
+	//
+	// PARAMETERS:
+	// - token: the token of the player to move.
+	// - alpha: the score the player to move is already
+	// guaranteed elsewhere.
+	// - beta: the score the opponent is already
+	// guaranteed elsewhere.
+	//
+	// RETURNS: the score of the board for the player to
+	// move, exact if it is between alpha and beta, and
+	// otherwise a bound on the side of the window it fell.
+	//
+	// ------------------------------------------------------
+	private int negamax(Status token, int alpha, int beta)
+	{
+		int score = 0; // a full board is a draw
+		boolean done = this.board.isFull();
+		Status opponent = (token == Status.ONE) ? Status.TWO : Status.ONE;
+		int moves = this.board.getMoveCount();
+
+		this.nodes++;
+
+		// a win on this move is the best result possible
+		for (int col = 0; col < this.board.getWidth() && !done; col++)
+		{
+			if (this.board.canPlay(col))
+			{
+				this.board.dropToken(col, token);
+
+				if (this.board.isWin(token))
+				{
+					score = (this.cells + 1 - moves) / 2;
+					done = true;
+				}
+
+				this.board.undoToken(col);
+			}
+		}
+
+		if (!done)
+		{
+			// at best, the player to move can win with their next token after this one
+			int best = (this.cells - 1 - moves) / 2;
+			long key = this.board.getCanonicalHash(); // shared with the board's mirror image, which has the same score
+			long entry = this.table.probe(key);
+
+			if (entry != TranspositionTable.EMPTY)
+			{
+				int stored = TranspositionTable.getScore(entry);
+
+				if (TranspositionTable.getBound(entry) == TranspositionTable.UPPER)
+				{
+					best = Math.min(best, stored);
+				}
+				else if (stored > alpha)
+				{
+					alpha = stored;
+				}
+			}
+
+			if (beta > best)
+			{
+				beta = best;
+			}
+
+			if (alpha >= beta)
+			{
+				score = beta;
+				done = true;
+			}
+
+			for (int i = 0; i < this.moveOrder.length && !done; i++)
+			{
+				int col = this.moveOrder[i];
+
+				if (this.board.canPlay(col))
+				{
+					this.board.dropToken(col, token);
+					score = -negamax(opponent, -beta, -alpha);
+					this.board.undoToken(col);
+
+					if (score >= beta)
+					{
+						this.table.store(key, 0, score, TranspositionTable.LOWER, this.board.canonicalMove(col));
+						done = true;
+					}
+					else if (score > alpha)
+					{
+						alpha = score;
+					}
+				}
+			}
+
+			if (!done)
+			{
+				score = alpha;
+				this.table.store(key, 0, score, TranspositionTable.UPPER, -1);
+			}
+		}
+
+		return score;
+	}
+}
@@ -0,0 +1,129 @@
+//------------------------------------------------------
+//
+// CLASS: Position
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to give the
+//          players a read-only view of the game's board
+//          (see BoardArray.getPosition()). It always shows
+//          the board as it is now, so a player reads the
+//          one authoritative board rather than keeping
+//          its own copy up to date, and cannot change it.
+//          A player that needs a board of its own to try
+//          moves on copies the position into one with
+//          copyTo. A position must not be kept after the
+//          player's move, as the board goes on changing.
+//
+//------------------------------------------------------
+
+public final class Position
+{
+	private final BoardArray board;
+
+	// made only by BoardArray.getPosition()
+	Position(BoardArray board)
+	{
+		this.board = board;
+	}
+
+	// various getters for the class, as in BoardArray
+	public int getWidth()
+	{
+		return this.board.getWidth();
+	}
+
+	public int getHeight()
+	{
+		return this.board.getHeight();
+	}
+
+	public int getObjective()
+	{
+		return this.board.getObjective();
+	}
+
+	public int getMoveCount()
+	{
+		return this.board.getMoveCount();
+	}
+
+	public int getMove(int ply)
+	{
+		return this.board.getMove(ply);
+	}
+
+	public int getLastMove()
+	{
+		return this.board.getLastMove();
+	}
+
+	public Status getTurn()
+	{
+		return this.board.getTurn();
+	}
+
+	public Status getCell(int row, int col)
+	{
+		return this.board.getCell(row, col);
+	}
+
+	public int getColumnHeight(int col)
+	{
+		return this.board.getColumnHeight(col);
+	}
+
+	public boolean canPlay(int col)
+	{
+		return this.board.canPlay(col);
+	}
+
+	public boolean isFull()
+	{
+		return this.board.isFull();
+	}
+
+	public boolean isWin(Status token)
+	{
+		return this.board.isWin(token);
+	}
+
+	// the leftmost column where the token would complete a line, or -1, read from the board's threat index, which
+	// its owner built when this position was made and keeps up to date (see BoardArray.getWinningColumn)
+	public int getWinningColumn(Status token)
+	{
+		return this.board.getWinningColumn(token);
+	}
+
+	public long getHash()
+	{
+		return this.board.getHash();
+	}
+
+	public long getPositionKey()
+	{
+		return this.board.getPositionKey();
+	}
+
+	public long getCanonicalHash()
+	{
+		return this.board.getCanonicalHash();
+	}
+
+	public long getCanonicalPositionKey()
+	{
+		return this.board.getCanonicalPositionKey();
+	}
+
+	// checks whether the given board could hold a copy of this position
+	public boolean isSameSize(BoardArray other)
+	{
+		return this.board.isSameSize(other);
+	}
+
+	// makes the given board, which must be the same size, identical to this position
+	public void copyTo(BoardArray target)
+	{
+		target.copyFrom(this.board);
+	}
+}
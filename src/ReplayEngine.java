@@ -0,0 +1,253 @@
+
+//------------------------------------------------------
+//
+// CLASS: ReplayEngine
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to play back
+//          every game in a GameRecordLog through
+//          GameLogic, as a regression check. The player's
+//          moves are given to GameLogic.addPiece, and the
+//          AI's are played by a ScriptedPlayer. A game
+//          matches its record if every move can be played,
+//          and GameLogic declares the recorded result on
+//          the last recorded move.
+//
+//          The log is memory-mapped a window at a time
+//          rather than read, so however large it is,
+//          little of it needs to be on the heap. A game is
+//          only started in a window if the whole of it is
+//          certain to fit; otherwise the next window is
+//          mapped from that game onwards.
+//
+//          Usage: java ReplayEngine <log file>
+//
+//------------------------------------------------------
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class ReplayEngine
+{
+	private static final long WINDOW_SIZE = 1L << 30; // the most bytes of the log mapped at once
+	private static final int MAX_REPORTED_MISMATCHES = 10;
+
+	private String path;
+	private int width; // the size of the board, and the number of tokens in a line needed to win
+	private int height;
+	private int objective;
+	private long games; // the number of games played back by run()
+	private long moves;
+	private long mismatches;
+	private long[] firstMismatches; // the numbers of the first few games that did not match, from 0
+	private long elapsed; // the time taken to play back every game, in nanoseconds
+
+	// generic constructor, which reads the log's header
+	public ReplayEngine(String path) throws IOException
+	{
+		this.path = path;
+
+		try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ))
+		{
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					Math.min(channel.size(), GameRecordLog.HEADER_SIZE));
+
+			if (header.limit() < GameRecordLog.HEADER_SIZE || header.getInt(0) != GameRecordLog.MAGIC)
+			{
+				throw new IOException(path + " is not a game record log");
+			}
+
+			this.width = header.getInt(4);
+			this.height = header.getInt(8);
+			this.objective = header.getInt(12);
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 1)
+		{
+			System.out.println("Usage: java ReplayEngine <log file>");
+		}
+		else
+		{
+			ReplayEngine engine = new ReplayEngine(args[0]);
+
+			engine.run();
+			engine.printReport();
+		}
+	}
+
+	// various getters for the class, describing the games played back by run()
+	public long getGames()
+	{
+		return this.games;
+	}
+
+	public long getMoves()
+	{
+		return this.moves;
+	}
+
+	public long getMismatches()
+	{
+		return this.mismatches;
+	}
+
+	public double getGamesPerSecond()
+	{
+		return (this.elapsed > 0) ? this.games * 1e9 / this.elapsed : 0;
+	}
+
+	// ------------------------------------------------------
+	//
+	// run
+	//
+	// PURPOSE: The purpose of this method is to play back
+	// every game in the log, one window of the file at a
+	// time, counting the games that do not match their
+	// records.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: None. An IOException is thrown if the log
+	// cannot be read, or is cut off part way through a game.
+	//
+	// ------------------------------------------------------
+	public void run() throws IOException
+	{
+		int cells = this.width * this.height;
+		int maxGameSize = 5 + (cells + 1) / 2; // the largest varint header, and a move for every cell
+		int[] gameMoves = new int[cells];
+		HeadlessDisplay display = new HeadlessDisplay(0);
+		GameLogic logic = new GameLogic(display, this.width, this.height, this.objective);
+		ScriptedPlayer player = new ScriptedPlayer(gameMoves, 0);
+		long start = System.nanoTime();
+
+		this.games = 0;
+		this.moves = 0;
+		this.mismatches = 0;
+		this.firstMismatches = new long[MAX_REPORTED_MISMATCHES];
+
+		try (FileChannel channel = FileChannel.open(Paths.get(this.path), StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			long position = GameRecordLog.HEADER_SIZE;
+
+			while (position < size)
+			{
+				long windowSize = Math.min(WINDOW_SIZE, size - position);
+				boolean lastWindow = position + windowSize == size;
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+
+				while (window.hasRemaining() && (lastWindow || window.remaining() >= maxGameSize))
+				{
+					int header = GameRecordLog.readVarint(window);
+					int count = header >>> 2;
+
+					if (count > cells)
+					{
+						throw new IOException("Game " + this.games + " has more moves than the board has cells");
+					}
+
+					for (int i = 0; i < count; i += 2)
+					{
+						int pair = window.get();
+
+						gameMoves[i] = pair & 0xF;
+
+						if (i + 1 < count)
+						{
+							gameMoves[i + 1] = (pair >> 4) & 0xF;
+						}
+					}
+
+					if (!replayGame(logic, display, player, gameMoves, count, header & 3))
+					{
+						if (this.mismatches < MAX_REPORTED_MISMATCHES)
+						{
+							this.firstMismatches[(int) this.mismatches] = this.games;
+						}
+
+						this.mismatches++;
+					}
+
+					this.games++;
+					this.moves += count;
+				}
+
+				position += window.position();
+			}
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IOException("The log ends part way through game " + this.games);
+		}
+
+		this.elapsed = System.nanoTime() - start;
+	}
+
+	// ------------------------------------------------------
+	//
+	// replayGame
+	//
+	// PURPOSE: The purpose of this method is to play one
+	// recorded game back through GameLogic.
+	//
+	// PARAMETERS:
+	// - logic: the GameLogic to play the game on.
+	// - display: logic's display, which hears the result.
+	// - player: the AI, which plays the second player's
+	// recorded moves.
+	// - gameMoves: the recorded moves.
+	// - count: the number of recorded moves.
+	// - result: the recorded result (see GameRecordLog).
+	//
+	// RETURNS: true if the game matches its record.
+	//
+	// ------------------------------------------------------
+	private boolean replayGame(GameLogic logic, HeadlessDisplay display, ScriptedPlayer player, int[] gameMoves,
+			int count, int result)
+	{
+		Status expected = (result == GameRecordLog.RESULT_ONE) ? Status.ONE
+				: (result == GameRecordLog.RESULT_TWO) ? Status.TWO : Status.NEITHER;
+		boolean legal = true;
+
+		display.clear();
+		logic.reset(player.load(gameMoves, count));
+
+		try
+		{
+			for (int i = 0; i < count && legal && !display.isGameOver(); i += 2)
+			{
+				legal = logic.addPiece(gameMoves[i]);
+			}
+		}
+		catch (RuntimeException e)
+		{
+			// such as the AI running out of recorded moves, or naming a column that cannot be played
+			legal = false;
+		}
+
+		return legal && display.getWinner() == expected && logic.getMoveCount() == count;
+	}
+
+	public void printReport()
+	{
+		System.out.printf("%d games (%d moves) on a %d by %d board, objective %d%n", this.games, this.moves,
+				this.width, this.height, this.objective);
+		System.out.printf("%d did not match their records%n", this.mismatches);
+
+		for (int i = 0; i < Math.min(this.mismatches, MAX_REPORTED_MISMATCHES); i++)
+		{
+			System.out.println("  game " + this.firstMismatches[i]);
+		}
+
+		System.out.printf("%.0f games per second%n", getGamesPerSecond());
+	}
+}
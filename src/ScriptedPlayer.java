@@ -0,0 +1,66 @@
+//------------------------------------------------------
+//
+// CLASS: ScriptedPlayer
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to play the
+//          moves of a recorded game, rather than choose
+//          its own, so that a game can be played back
+//          through GameLogic (see ReplayEngine). It is
+//          given every move of the game, and plays the
+//          one at the position's move number, so it keeps
+//          its place through undo and redo without being
+//          told. A new game can be loaded into the same
+//          player.
+//
+//------------------------------------------------------
+
+public class ScriptedPlayer extends GameAI
+{
+	private int[] moves; // every move of the game, for both players
+	private int count; // the number of moves in the game
+
+	// generic constructor
+	public ScriptedPlayer(int[] moves, int count)
+	{
+		load(moves, count);
+	}
+
+	// starts playing the given game from the beginning, returning this player
+	public ScriptedPlayer load(int[] moves, int count)
+	{
+		this.moves = moves;
+		this.count = count;
+
+		return this;
+	}
+
+	// ------------------------------------------------------
+	//
+	// makeMove
+	//
+	// PURPOSE: The purpose of this method is to play the
+	// recorded move for the number of tokens on the board.
+	//
+	// PARAMETERS:
+	// - position: a read-only view of the game's board,
+	// with this player to move.
+	//
+	// RETURNS: the recorded column, or -1 if the recorded
+	// game has no more moves.
+	//
+	// ------------------------------------------------------
+	public int makeMove(Position position)
+	{
+		int chosenColumn = -1;
+		int ply = position.getMoveCount();
+
+		if (ply < this.count)
+		{
+			chosenColumn = this.moves[ply];
+		}
+
+		return chosenColumn;
+	}
+}
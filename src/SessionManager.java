@@ -0,0 +1,314 @@
+
+//------------------------------------------------------
+//
+// CLASS: SessionManager
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to host many
+//          games at once in one process, each in its own
+//          GameSession, found by a session id. Moves are
+//          played on a fixed pool of worker threads with
+//          a bounded queue, so a burst of moves waits its
+//          turn or is turned away, rather than starting
+//          an unbounded number of threads. Sessions that
+//          have not been used for a while are evicted by
+//          a background thread.
+//
+//          The time from a move being submitted to it
+//          finishing, including any wait in the queue, is
+//          recorded for every session together in a
+//          LatencyHistogram, while each GameSession keeps
+//          its own count, mean and worst time.
+//
+//          The AIs that search set aside tables of several
+//          megabytes, so sessions do not keep one each.
+//          Every worker thread has its own AIs instead (see
+//          WorkerAIs), lent to each session whose move it
+//          plays, and a session holds only its board and
+//          moves (about SESSION_BYTES on the largest board
+//          allowed). A limit on sessions can still be set.
+//          A session's slot is reserved before its game is
+//          made, so the limit holds however many sessions
+//          are created at once.
+//
+//------------------------------------------------------
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SessionManager
+{
+	public static final int MAX_WIDTH = GameRecordLog.MAX_WIDTH; // the widest board a session may ask for
+	public static final int MAX_CELLS = 256; // the most cells a session's board may have
+	public static final long SESSION_BYTES = 16384; // the memory a session takes on a MAX_CELLS board, with room to spare
+
+	private ConcurrentHashMap<String, GameSession> sessions;
+	private ThreadPoolExecutor moveExecutor; // plays the moves, with a bounded queue
+	private ScheduledExecutorService evictor; // removes idle sessions
+	private long idleTimeout; // how long a session may go unused before it is evicted, in nanoseconds
+	private int maxSessions;
+	private AtomicInteger sessionCount; // the sessions in the map, and those being made, counted against maxSessions
+	private AtomicLong nextId;
+	private AtomicLong created;
+	private AtomicLong evicted;
+	private AtomicLong rejected; // moves turned away because the queue was full
+	private LatencyHistogram latencies; // the time taken by every move, from being submitted to finishing
+	private ThreadLocal<WorkerAIs> workerAIs; // the AIs of each worker thread, lent to the sessions it plays for
+
+	// generic constructor
+	public SessionManager(int threads, int queueSize, long idleTimeoutMillis, int maxSessions)
+	{
+		this.sessions = new ConcurrentHashMap<String, GameSession>();
+		this.idleTimeout = idleTimeoutMillis * 1000000L;
+		this.maxSessions = maxSessions;
+		this.sessionCount = new AtomicInteger();
+		this.nextId = new AtomicLong();
+		this.created = new AtomicLong();
+		this.evicted = new AtomicLong();
+		this.rejected = new AtomicLong();
+		this.latencies = new LatencyHistogram();
+		this.workerAIs = ThreadLocal.withInitial(WorkerAIs::new);
+
+		this.moveExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueSize), runnable -> {
+					Thread thread = new Thread(runnable, "SessionManager worker");
+					thread.setDaemon(true);
+					return thread;
+				});
+
+		// check for idle sessions a few times per timeout, so none outlives it by much
+		long sweepInterval = Math.max(idleTimeoutMillis / 4, 1);
+
+		this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "SessionManager evictor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.evictor.scheduleWithFixedDelay(this::evictIdle, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+	}
+
+	// various getters for the class
+	public int getSessionCount()
+	{
+		return this.sessions.size();
+	}
+
+	public long getCreated()
+	{
+		return this.created.get();
+	}
+
+	public long getEvicted()
+	{
+		return this.evicted.get();
+	}
+
+	public long getRejected()
+	{
+		return this.rejected.get();
+	}
+
+	public int getQueuedMoves()
+	{
+		return this.moveExecutor.getQueue().size();
+	}
+
+	public LatencyHistogram getLatencies()
+	{
+		return this.latencies;
+	}
+
+	// returns the session with the given id, or null if there is none (or it was evicted)
+	public GameSession getSession(String id)
+	{
+		GameSession session = this.sessions.get(id);
+
+		if (session != null)
+		{
+			session.touch();
+		}
+
+		return session;
+	}
+
+	// ------------------------------------------------------
+	//
+	// createSession
+	//
+	// PURPOSE: The purpose of this method is to start a new
+	// game against the AI of the given difficulty, on a
+	// board of the given size, under a new session id.
+	//
+	// PARAMETERS:
+	// - difficulty: the AI's difficulty, from 1 to
+	// GameLogic.DIFFICULTIES.
+	// - width: the number of columns on the board.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	//
+	// RETURNS: the id of the new session. A board larger
+	// than MAX_WIDTH columns or MAX_CELLS cells, or a line
+	// longer than the board, is refused with an
+	// IllegalArgumentException.
+	//
+	// ------------------------------------------------------
+	public String createSession(int difficulty, int width, int height, int objective)
+	{
+		if (difficulty < 1 || difficulty > GameLogic.DIFFICULTIES)
+		{
+			throw new IllegalArgumentException("Difficulty must be from 1 to " + GameLogic.DIFFICULTIES);
+		}
+
+		// the sizes come from clients, so they are checked before anything is made from them
+		if (width < 1 || width > MAX_WIDTH || height < 1 || height > MAX_CELLS / width)
+		{
+			throw new IllegalArgumentException("Boards must be from 1 to " + MAX_WIDTH + " wide, with at most "
+					+ MAX_CELLS + " cells");
+		}
+
+		if (objective < 1 || objective > Math.max(width, height))
+		{
+			throw new IllegalArgumentException("The line to win must be from 1 to " + Math.max(width, height) + " long");
+		}
+
+		// reserve a slot first, so that two sessions made at once cannot both take the last one
+		if (this.sessionCount.incrementAndGet() > this.maxSessions)
+		{
+			this.sessionCount.decrementAndGet();
+			throw new IllegalStateException("Too many sessions (" + this.maxSessions + ")");
+		}
+
+		String id = Long.toString(this.nextId.incrementAndGet(), Character.MAX_RADIX);
+		GameSession session = null;
+
+		try
+		{
+			session = new GameSession(id, difficulty, width, height, objective);
+		}
+		finally
+		{
+			// give the slot back if the game could not be made
+			if (session == null)
+			{
+				this.sessionCount.decrementAndGet();
+			}
+		}
+
+		this.sessions.put(id, session);
+		this.created.incrementAndGet();
+
+		return id;
+	}
+
+	// ------------------------------------------------------
+	//
+	// addPiece
+	//
+	// PURPOSE: The purpose of this method is to queue the
+	// client's move on the given session, to be played by a
+	// worker thread along with the reply of that worker's
+	// AI.
+	//
+	// PARAMETERS:
+	// - id: the session to play on.
+	// - col: the column chosen by the client, from 0.
+	//
+	// RETURNS: a future which completes with the result of
+	// GameSession.addPiece, once the move has been played.
+	// If the queue is full, a RejectedExecutionException is
+	// thrown instead.
+	//
+	// ------------------------------------------------------
+	public CompletableFuture<Boolean> addPiece(String id, int col)
+	{
+		GameSession session = getSession(id);
+
+		if (session == null)
+		{
+			throw new IllegalArgumentException("No such session: " + id);
+		}
+
+		long submitted = System.nanoTime();
+
+		try
+		{
+			return CompletableFuture.supplyAsync(() -> {
+				boolean result = session.addPiece(col, this.workerAIs.get().findAI(session));
+
+				this.latencies.record(System.nanoTime() - submitted);
+
+				return result;
+			}, this.moveExecutor);
+		}
+		catch (RejectedExecutionException e)
+		{
+			this.rejected.incrementAndGet();
+			throw e;
+		}
+	}
+
+	// ends the given session, returning false if there was no such session
+	public boolean closeSession(String id)
+	{
+		boolean removed = this.sessions.remove(id) != null;
+
+		if (removed)
+		{
+			this.sessionCount.decrementAndGet();
+		}
+
+		return removed;
+	}
+
+	// ------------------------------------------------------
+	//
+	// evictIdle
+	//
+	// PURPOSE: The purpose of this method is to remove every
+	// session that has not been used for longer than the
+	// idle timeout. It is run regularly by the evictor
+	// thread. A session is only removed if it has not been
+	// used in the meantime, and a move already running on it
+	// still finishes.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: the number of sessions removed.
+	//
+	// ------------------------------------------------------
+	public int evictIdle()
+	{
+		long now = System.nanoTime();
+		int removed = 0;
+
+		for (GameSession session : this.sessions.values())
+		{
+			if (now - session.getLastUsed() > this.idleTimeout && this.sessions.remove(session.getId(), session))
+			{
+				removed++;
+			}
+		}
+
+		this.sessionCount.addAndGet(-removed);
+		this.evicted.addAndGet(removed);
+
+		return removed;
+	}
+
+	// stops the worker and evictor threads, after the moves already queued are played
+	public void shutdown()
+	{
+		this.evictor.shutdown();
+		this.moveExecutor.shutdown();
+	}
+}
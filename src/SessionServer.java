@@ -0,0 +1,326 @@
+
+//------------------------------------------------------
+//
+// CLASS: SessionServer
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to let clients
+//          play games hosted by a SessionManager over a
+//          simple line based protocol on a TCP port. Each
+//          request is one line, and each gets one line in
+//          reply, which starts with "OK" or "ERR". Columns
+//          are numbered from 1, as in TextBoard.
+//
+//          NEW <difficulty> [<width> <height> <objective>]
+//              -> OK <id>
+//          MOVE <id> <column>
+//              -> OK <state> <board>
+//          BOARD <id>
+//              -> OK <state> <board>
+//          RESET <id>
+//              -> OK
+//          CLOSE <id>
+//              -> OK
+//          STATS [<id>]
+//              -> OK <name>=<value> ...
+//          BYE (closes the connection)
+//
+//          The state is PLAYING, DRAW, ONE or TWO (the
+//          winner), and the board is written as in
+//          GameSession.getBoardText(). Each connection is
+//          served by its own thread, which waits while
+//          the session's move is played by the manager.
+//          The threads come from a pool with a limit on
+//          connections, and a connection beyond it is
+//          told "ERR too many connections" and closed.
+//
+//          Usage: java SessionServer [<port> [<threads>
+//                 <queue size> <idle seconds>
+//                 <max sessions> [<max connections>]]]
+//
+//------------------------------------------------------
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class SessionServer
+{
+	public static final int DEFAULT_PORT = 4150;
+	public static final int DEFAULT_QUEUE_SIZE = 1024;
+	public static final int DEFAULT_IDLE_SECONDS = 300;
+	// as many sessions as fit in half the heap, leaving the rest for the workers' AIs and the connections
+	public static final int DEFAULT_MAX_SESSIONS = (int) Math.min(Integer.MAX_VALUE,
+			Runtime.getRuntime().maxMemory() / 2 / SessionManager.SESSION_BYTES);
+	public static final int DEFAULT_MAX_CONNECTIONS = 1024;
+
+	private static final long CONNECTION_KEEP_ALIVE = 60; // seconds a connection thread is kept once idle
+
+	private SessionManager manager;
+	private ThreadPoolExecutor connectionPool; // serves each connection on its own thread, up to the limit
+
+	// generic constructor
+	public SessionServer(SessionManager manager)
+	{
+		this(manager, DEFAULT_MAX_CONNECTIONS);
+	}
+
+	public SessionServer(SessionManager manager, int maxConnections)
+	{
+		this.manager = manager;
+
+		// no queue, so a connection is either served straight away or turned away
+		this.connectionPool = new ThreadPoolExecutor(0, maxConnections, CONNECTION_KEEP_ALIVE, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), runnable -> {
+					Thread thread = new Thread(runnable, "SessionServer connection");
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int threads = (args.length > 4) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int queueSize = (args.length > 4) ? Integer.parseInt(args[2]) : DEFAULT_QUEUE_SIZE;
+		long idleSeconds = (args.length > 4) ? Long.parseLong(args[3]) : DEFAULT_IDLE_SECONDS;
+		int maxSessions = (args.length > 4) ? Integer.parseInt(args[4]) : DEFAULT_MAX_SESSIONS;
+		int maxConnections = (args.length > 5) ? Integer.parseInt(args[5]) : DEFAULT_MAX_CONNECTIONS;
+
+		SessionServer server = new SessionServer(new SessionManager(threads, queueSize, idleSeconds * 1000,
+				maxSessions), maxConnections);
+
+		server.serve(port);
+	}
+
+	// ------------------------------------------------------
+	//
+	// serve
+	//
+	// PURPOSE: The purpose of this method is to accept
+	// connections on the given port forever, serving each
+	// one on a thread from the connection pool, or turning
+	// it away if every thread is in use.
+	//
+	// PARAMETERS:
+	// - port: the TCP port to listen on.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void serve(int port) throws IOException
+	{
+		try (ServerSocket listener = new ServerSocket(port))
+		{
+			System.out.println("Serving games on port " + listener.getLocalPort());
+
+			while (true)
+			{
+				Socket socket = listener.accept();
+
+				try
+				{
+					this.connectionPool.execute(() -> handleConnection(socket));
+				}
+				catch (RejectedExecutionException e)
+				{
+					refuseConnection(socket);
+				}
+			}
+		}
+	}
+
+	// reads requests from the connection and writes each reply, until the client says BYE or disconnects, or the
+	// thread is interrupted
+	private void handleConnection(Socket socket)
+	{
+		try (Socket connection = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+				PrintWriter out = new PrintWriter(connection.getOutputStream(), true))
+		{
+			String line = in.readLine();
+
+			while (line != null && !line.trim().equalsIgnoreCase("BYE"))
+			{
+				String reply;
+
+				// a request that fails in a way respond() does not expect is answered, not left to end the connection
+				try
+				{
+					reply = respond(line);
+				}
+				catch (RuntimeException e)
+				{
+					reply = "ERR request failed: " + e;
+				}
+
+				out.println(reply);
+
+				// a thread that has been interrupted, such as while waiting for a move, closes the connection
+				line = Thread.currentThread().isInterrupted() ? null : in.readLine();
+			}
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	// tells a client there is no thread to serve it, then closes the connection
+	private void refuseConnection(Socket socket)
+	{
+		try (Socket connection = socket;
+				PrintWriter out = new PrintWriter(connection.getOutputStream(), true))
+		{
+			out.println("ERR too many connections");
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// respond
+	//
+	// PURPOSE: The purpose of this method is to carry out
+	// one request of the protocol described above. It does
+	// not need a connection, so the protocol can be driven
+	// directly as well.
+	//
+	// PARAMETERS:
+	// - request: the request line.
+	//
+	// RETURNS: the reply line.
+	//
+	// ------------------------------------------------------
+	public String respond(String request)
+	{
+		String[] words = request.trim().split("\\s+");
+		String command = words[0].toUpperCase();
+		String reply;
+
+		try
+		{
+			if (command.equals("NEW") && (words.length == 2 || words.length == 5))
+			{
+				int difficulty = Integer.parseInt(words[1]);
+				int width = (words.length == 5) ? Integer.parseInt(words[2]) : BoardArray.DEFAULT_WIDTH;
+				int height = (words.length == 5) ? Integer.parseInt(words[3]) : BoardArray.DEFAULT_HEIGHT;
+				int objective = (words.length == 5) ? Integer.parseInt(words[4]) : BoardArray.DEFAULT_OBJECTIVE;
+
+				reply = "OK " + this.manager.createSession(difficulty, width, height, objective);
+			}
+			else if (command.equals("MOVE") && words.length == 3)
+			{
+				GameSession session = findSession(words[1]);
+
+				if (session.isGameOver())
+				{
+					reply = "ERR game over";
+				}
+				else if (this.manager.addPiece(words[1], Integer.parseInt(words[2]) - 1).get())
+				{
+					reply = "OK " + describe(session);
+				}
+				else
+				{
+					reply = "ERR column not playable";
+				}
+			}
+			else if (command.equals("BOARD") && words.length == 2)
+			{
+				reply = "OK " + describe(findSession(words[1]));
+			}
+			else if (command.equals("RESET") && words.length == 2)
+			{
+				findSession(words[1]).reset();
+				reply = "OK";
+			}
+			else if (command.equals("CLOSE") && words.length == 2)
+			{
+				reply = this.manager.closeSession(words[1]) ? "OK" : "ERR no such session";
+			}
+			else if (command.equals("STATS") && words.length == 2)
+			{
+				GameSession session = findSession(words[1]);
+
+				reply = String.format("OK moves=%d mean_ms=%.3f max_ms=%.3f", session.getMoves(),
+						session.getMeanNanos() / 1e6, session.getMaxNanos() / 1e6);
+			}
+			else if (command.equals("STATS") && words.length == 1)
+			{
+				LatencyHistogram latencies = this.manager.getLatencies();
+
+				reply = String.format(
+						"OK sessions=%d created=%d evicted=%d rejected=%d queued=%d moves=%d mean_ms=%.3f "
+								+ "p50_ms=%.3f p90_ms=%.3f p99_ms=%.3f max_ms=%.3f",
+						this.manager.getSessionCount(), this.manager.getCreated(), this.manager.getEvicted(),
+						this.manager.getRejected(), this.manager.getQueuedMoves(), latencies.getCount(),
+						latencies.getMean() / 1e6, latencies.getPercentile(50) / 1e6,
+						latencies.getPercentile(90) / 1e6, latencies.getPercentile(99) / 1e6,
+						latencies.getMax() / 1e6);
+			}
+			else
+			{
+				reply = "ERR unknown request: " + request.trim();
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			reply = "ERR not a number: " + e.getMessage();
+		}
+		catch (RejectedExecutionException e)
+		{
+			reply = "ERR busy, try again";
+		}
+		catch (IllegalArgumentException | IllegalStateException e)
+		{
+			reply = "ERR " + e.getMessage();
+		}
+		catch (ExecutionException e)
+		{
+			reply = "ERR move failed: " + e.getCause();
+		}
+		catch (InterruptedException e)
+		{
+			// kept for the connection's loop, which stops once the reply is written
+			Thread.currentThread().interrupt();
+			reply = "ERR interrupted";
+		}
+
+		return reply;
+	}
+
+	// returns the session with the given id, throwing IllegalArgumentException if there is none
+	private GameSession findSession(String id)
+	{
+		GameSession session = this.manager.getSession(id);
+
+		if (session == null)
+		{
+			throw new IllegalArgumentException("no such session: " + id);
+		}
+
+		return session;
+	}
+
+	// the state of the session's game, followed by its board
+	private String describe(GameSession session)
+	{
+		Status winner = session.getWinner();
+		String state = (winner == null) ? "PLAYING" : (winner == Status.NEITHER) ? "DRAW" : winner.toString();
+
+		return state + " " + session.getBoardText();
+	}
+}
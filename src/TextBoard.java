@@ -1,46 +1,106 @@
-import java.util.Arrays;
 import java.util.Scanner;
 
 
 
 public class TextBoard  implements GameDisplay {
-	private final int WIDTH = 7;
-	private final int HEIGHT = 6;
+	private final int WIDTH;
+	private final int HEIGHT;
 	private ConnectController cc;
 	private Scanner kbd;
+	private boolean compact; // true to draw each board on one line, as rows separated by '/'
+	private char[] frame; // the text of the board, reused for every drawing
+	private static final int UNDO = -2; // returned by getCol when the player asks to undo or redo a move
+	private static final int REDO = -3;
 
 	private void drawBoard(Status[][] board) { 
+		// the whole board is built in the reused frame, which it fills, then written in one call
+		renderBoard(board, HEIGHT, WIDTH, compact, frame);
+		System.out.print(frame);
+	}
+
+	// ------------------------------------------------------
+	//
+	// renderBoard
+	//
+	// PURPOSE: The purpose of this method is to write the
+	// board into the given buffer as text ('X' for player
+	// ONE, 'O' for player TWO and '-' for empty), one row at
+	// a time from the top. In full form, each row is ended
+	// by a line separator. In compact form, the rows are
+	// separated by '/' on a single line, for reading by
+	// scripts, bots or logs.
+	//
+	// PARAMETERS:
+	// - board: the board to write, or null for an empty one.
+	// - height: the number of rows on the board.
+	// - width: the number of columns on the board.
+	// - compact: true for the one line form.
+	// - frame: the buffer to write into, at least
+	// frameLength(height, width, compact) long.
+	//
+	// RETURNS: the number of chars written.
+	//
+	// ------------------------------------------------------
+	static int renderBoard(Status[][] board, int height, int width, boolean compact, char[] frame) {
 		final char one = 'X';
 		final char two = 'O';
 		final char blank = '-';
-		for (int i = 0; i < HEIGHT; i++) {
-			for (int j = 0; j < WIDTH; j++) { 
-				Status s = board[i][j];
+		int pos = 0;
+		for (int i = 0; i < height; i++) {
+			if (compact && i > 0) {
+				frame[pos++] = '/';
+			}
+			for (int j = 0; j < width; j++) { 
+				Status s = (board == null) ? Status.NEITHER : board[i][j];
 				switch (s) {
 				case ONE:
-					System.out.print(one);
+					frame[pos++] = one;
 					break;
 				case TWO:
-					System.out.print(two);
+					frame[pos++] = two;
 					break;
 				case NEITHER:
-					System.out.print(blank);
+					frame[pos++] = blank;
 					break;
 				}
 
 			}
-			System.out.println();
+			if (!compact || i == height - 1) {
+				pos = appendLineSeparator(frame, pos);
+			}
 		}
+		return pos;
+	}
+
+	// the size of buffer needed by renderBoard
+	static int frameLength(int height, int width, boolean compact) {
+		int rows = compact ? 1 : height;
+		return height * width + (compact ? height - 1 : 0) + rows * System.lineSeparator().length();
+	}
+
+	private static int appendLineSeparator(char[] frame, int pos) {
+		String separator = System.lineSeparator();
+		separator.getChars(0, separator.length(), frame, pos);
+		return pos + separator.length();
 	}
 
 	private void turn() {
 		System.out.println("YOUR TURN...");
-		int col = getCol();
-		boolean success = cc.addPiece(col);
+		boolean success = false;
 		while (!success) {
-			System.out.println("Error: column full");
-			col = getCol();
-			success = cc.addPiece(col);
+			int col = getCol();
+			if (col == UNDO || col == REDO) {
+				// undoing or redoing a move redraws the board, then it is still the player's turn
+				boolean done = (col == UNDO) ? cc.undo() : cc.redo();
+				if (!done) {
+					System.out.println("Error: nothing to " + ((col == UNDO) ? "undo" : "redo"));
+				}
+			} else {
+				success = cc.addPiece(col);
+				if (!success) {
+					System.out.println("Error: column full");
+				}
+			}
 		}
 	}
 
@@ -49,16 +109,29 @@ public class TextBoard  implements GameDisplay {
 		cc.reset();
 	}
 	
-	public TextBoard() { 
-		cc = ControllerFactory.makeController(this);
+	public TextBoard() {
+		this(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE);
+	}
+
+	public TextBoard(int width, int height, int objective) { 
+		this(width, height, objective, false);
+	}
+
+	public TextBoard(int width, int height, int objective, boolean compact) { 
+		this(width, height, objective, compact, false);
+	}
+
+	// if pondering is true, the AI keeps thinking while waiting for the player's move
+	public TextBoard(int width, int height, int objective, boolean compact, boolean pondering) { 
+		WIDTH = width;
+		HEIGHT = height;
+		this.compact = compact;
+		frame = new char[frameLength(HEIGHT, WIDTH, compact)];
+		cc = ControllerFactory.makeController(this, width, height, objective, Runnable::run, pondering);
 		kbd = new Scanner(System.in);
 		reset();
 		// draw empty board and start.
-		Status[][] board = new Status[HEIGHT][WIDTH];
-		for (int i = 0; i < HEIGHT; i++) {
-			Arrays.fill(board[i], Status.NEITHER);
-		}
-		drawBoard(board);
+		drawBoard(null);
 		while (true) {
 			turn();
 		}
@@ -134,9 +207,14 @@ public class TextBoard  implements GameDisplay {
 	}
 
 	private int getCol() {
-		String prompt = "Where do you want to play (1..7)?";
+		String prompt = "Where do you want to play (1.." + WIDTH + ", or U to undo, R to redo)?";
 		System.out.println(prompt);
 		String res = kbd.nextLine();
+		if (res.trim().equalsIgnoreCase("U")) {
+			return UNDO;
+		} else if (res.trim().equalsIgnoreCase("R")) {
+			return REDO;
+		}
 		Scanner parse = null;
 		int difficulty = -1;
 		boolean done = false;
@@ -151,9 +229,14 @@ public class TextBoard  implements GameDisplay {
 			}
 		}
 		while (!done) {
-			prompt = "Error in input.\nWhere do you want to play (1..7)?";
+			prompt = "Error in input.\nWhere do you want to play (1.." + WIDTH + ", or U to undo, R to redo)?";
 			System.out.println(prompt);
 			res = kbd.nextLine();
+			if (res.trim().equalsIgnoreCase("U")) {
+				return UNDO;
+			} else if (res.trim().equalsIgnoreCase("R")) {
+				return REDO;
+			}
 
 			if (res != null) {
 				parse = new Scanner(res);
@@ -0,0 +1,305 @@
+//------------------------------------------------------
+//
+// CLASS: ThreatIndex
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to keep track of
+//          each player's threats, the empty cells that
+//          would complete a line for that player, as
+//          tokens are dropped and taken back. This finds
+//          gaps in a line (such as X-XX) as well as the
+//          ends of a run, since every window through the
+//          cell is counted (see LineTable).
+//
+//          For each window, the number of each player's
+//          tokens in it is kept. A window holds a threat
+//          when one player has all but one of its cells
+//          and the other player has none, and the threat
+//          is the window's empty cell. A cell can be the
+//          threat of several windows, so each cell counts
+//          how many windows it completes, and its bit in
+//          the player's threat bitboard is set while that
+//          count is above 0. Only the windows through the
+//          changed cell are looked at, so each drop or
+//          undo takes the same small amount of work
+//          however full the board is.
+//
+//          The bitboards use BoardArray's layout, so
+//          BoardArray can intersect them with the cells
+//          that can be played straight away.
+//
+//          When it is given window weights (see
+//          WindowEvaluator), the index also keeps a running
+//          score of the board, from Status.ONE's point of
+//          view. Each window a player could still win with
+//          adds the weight for the number of that player's
+//          tokens in it, and the opponent's such windows
+//          subtract theirs. The score is updated along with
+//          the counts, so reading it takes no work at all.
+//
+//          Both counts of a window are packed into a single
+//          state, ONE's count * (objective + 1) + TWO's
+//          count, so that a drop or undo only adds to it,
+//          and the threats and score of every state are
+//          looked up in tables made once.
+//
+//------------------------------------------------------
+
+import java.util.Arrays;
+
+public class ThreatIndex
+{
+	private static final byte EMPTY = 0; // the owners of the cells
+	private static final byte ONE = 1;
+	private static final byte TWO = 2;
+
+	private LineTable lines;
+	private int objective;
+	private int[] steps; // how much a token changes a window's state, for ONE then TWO
+	private byte[] owner; // the token in each cell
+	private int[] windowStates; // the packed counts of each window's tokens
+	private byte[] stateThreats; // for each state, ONE if it is a threat for ONE, plus TWO if it is for TWO
+	private int[] stateScores; // for each state, the window's score from ONE's point of view (all 0 without weights)
+	private int[][] threatCounts; // the number of windows each cell would complete, for ONE then TWO
+	private long[][] threats; // the cells that would complete a line, as bitboards, for ONE then TWO
+	private int[] weights; // the score of a window by the number of one player's tokens in it, or null
+	private int score; // the sum of every window's score, from Status.ONE's point of view
+
+	// generic constructor, for an empty board
+	public ThreatIndex(int width, int height, int objective)
+	{
+		this(width, height, objective, null);
+	}
+
+	// a constructor that also keeps a score, where weights has an entry for each count from 0 to objective
+	public ThreatIndex(int width, int height, int objective, int[] weights)
+	{
+		int states = (objective + 1) * (objective + 1);
+
+		this.lines = LineTable.forSize(width, height, objective);
+		this.objective = objective;
+		this.weights = weights;
+		this.steps = new int[] { objective + 1, 1 };
+		this.owner = new byte[this.lines.getCellCount()];
+		this.windowStates = new int[this.lines.getWindowCount()];
+		this.stateThreats = new byte[states];
+		this.stateScores = new int[states];
+		this.threatCounts = new int[2][this.lines.getCellCount()];
+		this.threats = new long[2][(this.lines.getCellCount() + Long.SIZE - 1) / Long.SIZE];
+
+		// a window is a threat when a player has all but one of its cells and the other player has none of them
+		for (int one = 0; one <= objective; one++)
+		{
+			for (int two = 0; two <= objective; two++)
+			{
+				int state = one * this.steps[0] + two;
+
+				if (one == objective - 1 && two == 0)
+				{
+					this.stateThreats[state] |= ONE;
+				}
+
+				if (two == objective - 1 && one == 0)
+				{
+					this.stateThreats[state] |= TWO;
+				}
+
+				// a window counts for the player who has tokens in it only while the other player has none
+				if (weights != null && two == 0)
+				{
+					this.stateScores[state] = weights[one];
+				}
+				else if (weights != null && one == 0)
+				{
+					this.stateScores[state] = -weights[two];
+				}
+			}
+		}
+
+		clear();
+	}
+
+	// ------------------------------------------------------
+	//
+	// clear
+	//
+	// PURPOSE: The purpose of this method is to empty the
+	// index, as for an empty board. A line of one token is
+	// the only kind that an empty window can be a threat
+	// for, in which case every cell is a threat.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void clear()
+	{
+		for (int p = 0; p < 2; p++)
+		{
+			Arrays.fill(this.threatCounts[p], 0);
+			Arrays.fill(this.threats[p], 0L);
+		}
+
+		Arrays.fill(this.windowStates, 0);
+		Arrays.fill(this.owner, EMPTY);
+		this.score = 0;
+
+		for (int window = 0; window < this.lines.getWindowCount(); window++)
+		{
+			this.score += this.stateScores[0];
+			addThreats(this.stateThreats[0], this.lines.getWindowCell(window, 0));
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// add
+	//
+	// PURPOSE: The purpose of this method is to record a
+	// token dropped into the given cell. For each window
+	// through the cell, a threat the window held was the
+	// cell itself, so it is removed, then the token is added
+	// to the window's state, and if the window is now a
+	// threat, its remaining empty cell is added.
+	//
+	// PARAMETERS:
+	// - cell: the cell the token landed in, numbered as in
+	// BoardArray.
+	// - token: the token dropped (ONE or TWO).
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void add(int cell, Status token)
+	{
+		int step = this.steps[(token == Status.ONE) ? 0 : 1];
+		int end = this.lines.getCellEnd(cell);
+
+		this.owner[cell] = (token == Status.ONE) ? ONE : TWO;
+
+		for (int i = this.lines.getCellStart(cell); i < end; i++)
+		{
+			int window = this.lines.getCellWindow(i);
+			int state = this.windowStates[window];
+			int next = state + step;
+
+			removeThreats(this.stateThreats[state], cell);
+			this.windowStates[window] = next;
+			this.score += this.stateScores[next] - this.stateScores[state];
+
+			if (this.stateThreats[next] != 0)
+			{
+				addThreats(this.stateThreats[next], emptyCell(window));
+			}
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// remove
+	//
+	// PURPOSE: The purpose of this method is to record the
+	// token in the given cell being taken back, reversing
+	// add. For each window through the cell, a threat the
+	// window held is removed from its empty cell, then the
+	// token is taken out of the window's state, and if the
+	// window is now a threat, the cell itself is added.
+	//
+	// PARAMETERS:
+	// - cell: the cell of the token, numbered as in
+	// BoardArray.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void remove(int cell)
+	{
+		int step = this.steps[(this.owner[cell] == ONE) ? 0 : 1];
+		int end = this.lines.getCellEnd(cell);
+
+		for (int i = this.lines.getCellStart(cell); i < end; i++)
+		{
+			int window = this.lines.getCellWindow(i);
+			int state = this.windowStates[window];
+			int next = state - step;
+
+			// the cell is still taken here, so the window's empty cell is found elsewhere
+			if (this.stateThreats[state] != 0)
+			{
+				removeThreats(this.stateThreats[state], emptyCell(window));
+			}
+
+			this.windowStates[window] = next;
+			this.score += this.stateScores[next] - this.stateScores[state];
+			addThreats(this.stateThreats[next], cell);
+		}
+
+		this.owner[cell] = EMPTY;
+	}
+
+	// checks whether the given cell would complete a line for the given token
+	public boolean isThreat(int cell, Status token)
+	{
+		return this.threatCounts[(token == Status.ONE) ? 0 : 1][cell] > 0;
+	}
+
+	// the given word of the given token's threat bitboard
+	public long getThreats(Status token, int word)
+	{
+		return this.threats[(token == Status.ONE) ? 0 : 1][word];
+	}
+
+	// the weights the score is kept with, or null if there is no score
+	public int[] getWeights()
+	{
+		return this.weights;
+	}
+
+	// the score of the board from Status.ONE's point of view, if the index was given weights
+	public int getScore()
+	{
+		return this.score;
+	}
+
+	// the one empty cell of a window that is a threat
+	private int emptyCell(int window)
+	{
+		int cell = this.lines.getWindowCell(window, 0);
+
+		for (int i = 1; i < this.objective && this.owner[cell] != EMPTY; i++)
+		{
+			cell = this.lines.getWindowCell(window, i);
+		}
+
+		return cell;
+	}
+
+	// adds the cell to the threats of the players in the given threat flags
+	private void addThreats(byte flags, int cell)
+	{
+		if ((flags & ONE) != 0 && this.threatCounts[0][cell]++ == 0)
+		{
+			this.threats[0][cell >>> 6] |= 1L << cell;
+		}
+
+		if ((flags & TWO) != 0 && this.threatCounts[1][cell]++ == 0)
+		{
+			this.threats[1][cell >>> 6] |= 1L << cell;
+		}
+	}
+
+	private void removeThreats(byte flags, int cell)
+	{
+		if ((flags & ONE) != 0 && --this.threatCounts[0][cell] == 0)
+		{
+			this.threats[0][cell >>> 6] &= ~(1L << cell);
+		}
+
+		if ((flags & TWO) != 0 && --this.threatCounts[1][cell] == 0)
+		{
+			this.threats[1][cell >>> 6] &= ~(1L << cell);
+		}
+	}
+}
@@ -0,0 +1,505 @@
+
+//------------------------------------------------------
+//
+// CLASS: Tournament
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to play many
+//          games between two ConnectPlayers without any
+//          display, to measure how strong and how fast
+//          they are against each other. The players take
+//          turns moving first, and each game is given
+//          fresh players, since some AIs keep what they
+//          learn from one move to the next. The games are
+//          spread across a pool of threads.
+//
+//          Each player is given a read-only Position of
+//          the game's board. A player that chooses a
+//          column that cannot be played, or that throws an
+//          exception, forfeits the game.
+//
+//          The report gives the first player's wins,
+//          draws and losses, the difference in Elo rating
+//          those results suggest (with a 95% margin of
+//          error), the number of games played per second,
+//          and percentiles of how long each player took
+//          to make a move, which are counted in a
+//          LatencyHistogram for each player, so the memory
+//          they use does not grow with the number of
+//          games. The games can also be recorded
+//          in a GameRecordLog, leaving out any forfeits.
+//
+//          Usage: java Tournament [-record <log file>]
+//                 <difficulty> <difficulty> <games>
+//                 [<threads> [<width> <height> <objective>]]
+//
+//------------------------------------------------------
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+public class Tournament
+{
+	// the result of each game, for the first player
+	public static final int WIN = 1;
+	public static final int DRAW = 0;
+	public static final int LOSS = -1;
+
+	private static final int NO_FORFEIT = -1;
+	private static final double Z_95 = 1.96; // the number of standard errors either side of a 95% interval
+
+	private String[] names; // the name of each player, used in the report
+	private Supplier<ConnectPlayer> firstPlayer; // creates the first player for each game
+	private Supplier<ConnectPlayer> secondPlayer; // creates the second player for each game
+	private int games;
+	private int threads;
+	private int width; // the size of the board, and the number of tokens in a line needed to win
+	private int height;
+	private int objective;
+	private int cells; // the number of cells on the board, which is the most moves a game can have
+	private int[] results; // the result of each game, for the first player
+	private int[] forfeits; // the player (0 or 1) who forfeited each game, or NO_FORFEIT
+	private LatencyHistogram[] latencies; // each player's move times, shared by the threads without locking
+	private long elapsed; // the time taken to play every game, in nanoseconds
+	private GameRecordLog recordLog; // where the games are recorded, or null
+
+	// generic constructor
+	public Tournament(String firstName, Supplier<ConnectPlayer> firstPlayer, String secondName,
+			Supplier<ConnectPlayer> secondPlayer, int games, int threads)
+	{
+		this(firstName, firstPlayer, secondName, secondPlayer, games, threads, BoardArray.DEFAULT_WIDTH,
+				BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE);
+	}
+
+	// plays on a board of the given size, which the players must also be created for
+	public Tournament(String firstName, Supplier<ConnectPlayer> firstPlayer, String secondName,
+			Supplier<ConnectPlayer> secondPlayer, int games, int threads, int width, int height, int objective)
+	{
+		this.names = new String[] { firstName, secondName };
+		this.firstPlayer = firstPlayer;
+		this.secondPlayer = secondPlayer;
+		this.games = games;
+		this.threads = Math.max(threads, 1);
+		this.width = width;
+		this.height = height;
+		this.objective = objective;
+		this.cells = width * height;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		ArrayList<String> arguments = new ArrayList<String>(Arrays.asList(args));
+		int recordFlag = arguments.indexOf("-record");
+		String recordPath = null;
+
+		if (recordFlag >= 0 && recordFlag + 1 < arguments.size())
+		{
+			recordPath = arguments.remove(recordFlag + 1);
+			arguments.remove(recordFlag);
+		}
+
+		args = arguments.toArray(new String[0]);
+
+		if (args.length < 3 || arguments.contains("-record"))
+		{
+			System.out.println("Usage: java Tournament [-record <log file>] <difficulty> <difficulty> <games> "
+					+ "[<threads> [<width> <height> <objective>]]");
+		}
+		else
+		{
+			int first = Integer.parseInt(args[0]);
+			int second = Integer.parseInt(args[1]);
+			int games = Integer.parseInt(args[2]);
+			int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+			int width = (args.length > 6) ? Integer.parseInt(args[4]) : BoardArray.DEFAULT_WIDTH;
+			int height = (args.length > 6) ? Integer.parseInt(args[5]) : BoardArray.DEFAULT_HEIGHT;
+			int objective = (args.length > 6) ? Integer.parseInt(args[6]) : BoardArray.DEFAULT_OBJECTIVE;
+
+			if (first < 1 || first > GameLogic.DIFFICULTIES || second < 1 || second > GameLogic.DIFFICULTIES)
+			{
+				System.out.println("Difficulties must be from 1 to " + GameLogic.DIFFICULTIES);
+			}
+			else
+			{
+				reportSharedFiles(first == 6 || second == 6, width, height, objective);
+
+				Tournament tournament = new Tournament("Difficulty " + first,
+						() -> GameLogic.createAI(first, width, height, objective), "Difficulty " + second,
+						() -> GameLogic.createAI(second, width, height, objective), games, threads, width, height,
+						objective);
+
+				if (recordPath != null)
+				{
+					tournament.setRecordLog(new GameRecordLog(recordPath, width, height, objective));
+				}
+
+				tournament.run();
+				tournament.printReport();
+
+				if (recordPath != null)
+				{
+					tournament.recordLog.close();
+				}
+			}
+		}
+	}
+
+	// prints why any of the files the AIs share could not be read, since the AIs play on without them
+	private static void reportSharedFiles(boolean book, int width, int height, int objective)
+	{
+		try
+		{
+			WindowEvaluator.forObjective(objective);
+		}
+		catch (IOException e)
+		{
+			System.out.println(e.getMessage() + ", using the default weights");
+		}
+
+		try
+		{
+			EndgameTable.forSize(width, height, objective);
+		}
+		catch (IOException e)
+		{
+			System.out.println(e.getMessage() + ", searching instead");
+		}
+
+		if (book)
+		{
+			try
+			{
+				OpeningBook.forPath(OpeningBookBuilder.DEFAULT_PATH);
+			}
+			catch (IOException e)
+			{
+				System.out.println("No opening book available (" + e.getMessage() + "), searching every move instead");
+			}
+		}
+	}
+
+	// records each game played by run() in the given log, which must be for the same board, or none if it is null
+	public void setRecordLog(GameRecordLog recordLog)
+	{
+		this.recordLog = recordLog;
+	}
+
+	// ------------------------------------------------------
+	//
+	// run
+	//
+	// PURPOSE: The purpose of this method is to play every
+	// game, spread across the thread pool, and wait for them
+	// all to finish. Each game writes its results into its
+	// own part of the arrays, and its move times into the
+	// latency histograms, which the threads share without
+	// locking.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void run()
+	{
+		this.results = new int[this.games];
+		this.forfeits = new int[this.games];
+		this.latencies = new LatencyHistogram[] { new LatencyHistogram(), new LatencyHistogram() };
+
+		ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+		Future<?>[] futures = new Future<?>[this.games];
+		long start = System.nanoTime();
+
+		for (int i = 0; i < this.games; i++)
+		{
+			int game = i;
+
+			futures[i] = pool.submit(() -> playGame(game));
+		}
+
+		for (int i = 0; i < this.games; i++)
+		{
+			try
+			{
+				futures[i].get();
+			}
+			catch (Exception e)
+			{
+				e.printStackTrace();
+			}
+		}
+
+		this.elapsed = System.nanoTime() - start;
+		pool.shutdown();
+	}
+
+	// ------------------------------------------------------
+	//
+	// playGame
+	//
+	// PURPOSE: The purpose of this method is to play one
+	// game between new copies of the two players, with the
+	// first player moving first in even numbered games and
+	// second in odd numbered ones. The finished board and
+	// result are passed to a HeadlessDisplay, as GameLogic
+	// would, and the result is then recorded from it.
+	//
+	// PARAMETERS:
+	// - game: the number of the game, from 0.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void playGame(int game)
+	{
+		ConnectPlayer[] players = { this.firstPlayer.get(), this.secondPlayer.get() };
+		BoardArray board = new BoardArray(this.width, this.height, this.objective);
+		HeadlessDisplay display = new HeadlessDisplay(0);
+		int starter = game % 2; // the player who moves first, and so uses Status.ONE
+		int turn = starter;
+		Status token = Status.ONE;
+		Status winner = null;
+		int[] moves = new int[this.cells]; // the columns played, for the record log
+		int moveCount = 0;
+
+		this.forfeits[game] = NO_FORFEIT;
+
+		while (winner == null)
+		{
+			Status opponent = (token == Status.ONE) ? Status.TWO : Status.ONE;
+			long start = System.nanoTime();
+			int col = -1;
+
+			try
+			{
+				col = players[turn].makeMove(board.getPosition());
+			}
+			catch (RuntimeException e)
+			{
+				e.printStackTrace();
+			}
+
+			this.latencies[turn].record(System.nanoTime() - start);
+
+			if (col < 0 || col >= board.getWidth() || !board.canPlay(col))
+			{
+				this.forfeits[game] = turn;
+				winner = opponent;
+			}
+			else
+			{
+				board.dropToken(col, token);
+				moves[moveCount++] = col;
+
+				if (board.isWin(token))
+				{
+					winner = token;
+				}
+				else if (board.isFull())
+				{
+					winner = Status.NEITHER;
+				}
+			}
+
+			token = opponent;
+			turn = 1 - turn;
+		}
+
+		display.updateBoard(board.getBoard());
+		display.gameOver(winner);
+
+		if (this.recordLog != null && this.forfeits[game] == NO_FORFEIT)
+		{
+			try
+			{
+				this.recordLog.append(moves, moveCount, winner);
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+		}
+
+		if (display.getWinner() == Status.NEITHER)
+		{
+			this.results[game] = DRAW;
+		}
+		else if ((display.getWinner() == Status.ONE) == (starter == 0))
+		{
+			this.results[game] = WIN;
+		}
+		else
+		{
+			this.results[game] = LOSS;
+		}
+	}
+
+	// various getters for the class, describing the games played by run()
+	public int getWins()
+	{
+		return countResults(WIN);
+	}
+
+	public int getDraws()
+	{
+		return countResults(DRAW);
+	}
+
+	public int getLosses()
+	{
+		return countResults(LOSS);
+	}
+
+	// the number of games the given player (0 or 1) forfeited
+	public int getForfeits(int player)
+	{
+		int count = 0;
+
+		for (int i = 0; i < this.games; i++)
+		{
+			if (this.forfeits[i] == player)
+			{
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	public double getGamesPerSecond()
+	{
+		return (this.elapsed > 0) ? this.games * 1000000000.0 / this.elapsed : 0;
+	}
+
+	// the first player's share of the points, counting a draw as half a win
+	public double getScore()
+	{
+		return (getWins() + getDraws() * 0.5) / Math.max(this.games, 1);
+	}
+
+	// the first player's Elo rating minus the second player's, as suggested by the score
+	public double getEloDifference()
+	{
+		return eloFromScore(getScore());
+	}
+
+	// ------------------------------------------------------
+	//
+	// getEloMargin
+	//
+	// PURPOSE: The purpose of this method is to work out how
+	// far the true Elo difference could be from
+	// getEloDifference(), from the spread of the results of
+	// each game about the average score.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: half the width of the 95% interval of the Elo
+	// difference, which is infinite if every game had the
+	// same result.
+	//
+	// ------------------------------------------------------
+	public double getEloMargin()
+	{
+		double score = getScore();
+		double variance = 0;
+
+		for (int i = 0; i < this.games; i++)
+		{
+			double points = (this.results[i] + 1) * 0.5; // 1 for a win, 0.5 for a draw and 0 for a loss
+
+			variance += (points - score) * (points - score);
+		}
+
+		double error = Math.sqrt(variance / Math.max(this.games, 1) / Math.max(this.games, 1));
+		double margin = Double.POSITIVE_INFINITY;
+
+		if (error > 0)
+		{
+			margin = (eloFromScore(score + Z_95 * error) - eloFromScore(score - Z_95 * error)) / 2;
+		}
+
+		return margin;
+	}
+
+	// ------------------------------------------------------
+	//
+	// getLatencyPercentile
+	//
+	// PURPOSE: The purpose of this method is to find how
+	// long the given player took to make a move, at the
+	// given percentile of all of its moves, to within the
+	// accuracy of a LatencyHistogram.
+	//
+	// PARAMETERS:
+	// - player: 0 for the first player, 1 for the second.
+	// - percentile: from 0 to 100, where 50 gives the median
+	// and 100 gives the slowest move.
+	//
+	// RETURNS: the time taken, in nanoseconds.
+	//
+	// ------------------------------------------------------
+	public long getLatencyPercentile(int player, double percentile)
+	{
+		return this.latencies[player].getPercentile(percentile);
+	}
+
+	// ------------------------------------------------------
+	//
+	// printReport
+	//
+	// PURPOSE: The purpose of this method is to print the
+	// results of run() to the console.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void printReport()
+	{
+		System.out.printf("%s vs %s: %d games on %d threads in %.1f s (%.2f games/s)%n", this.names[0],
+				this.names[1], this.games, this.threads, this.elapsed / 1e9, getGamesPerSecond());
+		System.out.printf("%s: %d wins, %d draws, %d losses (forfeits: %d by %s, %d by %s)%n", this.names[0],
+				getWins(), getDraws(), getLosses(), getForfeits(0), this.names[0], getForfeits(1), this.names[1]);
+		System.out.printf("Score %.3f, Elo difference %+.0f +/- %.0f%n", getScore(), getEloDifference(),
+				getEloMargin());
+
+		for (int player = 0; player < 2; player++)
+		{
+			System.out.printf("%s move time (ms): p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n", this.names[player],
+					getLatencyPercentile(player, 50) / 1e6, getLatencyPercentile(player, 90) / 1e6,
+					getLatencyPercentile(player, 99) / 1e6, getLatencyPercentile(player, 100) / 1e6);
+		}
+	}
+
+	// counts the games with the given result
+	private int countResults(int result)
+	{
+		int count = 0;
+
+		for (int i = 0; i < this.games; i++)
+		{
+			if (this.results[i] == result)
+			{
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	// converts a share of the points into an Elo difference, which is infinite for a score of 0 or 1
+	private static double eloFromScore(double score)
+	{
+		double clamped = Math.max(0, Math.min(score, 1));
+
+		return -400 * Math.log10(1 / clamped - 1);
+	}
+}
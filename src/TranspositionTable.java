@@ -0,0 +1,234 @@
+
+//------------------------------------------------------
+//
+// CLASS: TranspositionTable
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to remember the
+//          results of searching a board, so that an AI
+//          search that reaches the same board through a
+//          different order of moves does not need to
+//          search it again. Boards are identified by
+//          their Zobrist hash (see BoardArray).
+//
+//          The table is allocated once, as two primitive
+//          arrays, and is never resized. Each bucket has
+//          two slots: the first keeps whichever result
+//          came from the deepest search, and the second
+//          is always replaced by the newest result. Each
+//          result is packed into a single long (see
+//          store) so that probing never allocates.
+//
+//          The table may be shared by searches running on
+//          several threads without any locking. Each key
+//          is stored XORed with its entry, so a slot that
+//          one thread read while another was half way
+//          through writing it will not match the key, and
+//          is treated as a miss. The counters are not
+//          synchronized, so they are approximate when the
+//          table is shared.
+//
+//------------------------------------------------------
+
+public class TranspositionTable
+{
+	// the kinds of bound that a stored score can be
+	public static final int EXACT = 0; // the score is the true score of the board
+	public static final int LOWER = 1; // the true score is at least the score (the search was cut off)
+	public static final int UPPER = 2; // the true score is at most the score (no move reached alpha)
+
+	public static final long EMPTY = 0L; // the value returned by probe when the board is not in the table
+
+	private static final int SLOTS = 2; // the depth-preferred slot followed by the always-replace slot
+	private static final long VALID = 1L << 63; // set in every stored entry, so that no entry equals EMPTY
+
+	private long[] keys; // the full hash of the board stored in each slot, XORed with the slot's entry
+	private long[] entries; // the packed result stored in each slot
+	private int bucketMask; // the number of buckets, minus one, used to map a hash to a bucket
+	private long hits;
+	private long misses;
+	private long collisions; // misses where the bucket was holding other boards
+	private long stores;
+
+	// generic constructor, where the table will have 2^sizeBits buckets
+	public TranspositionTable(int sizeBits)
+	{
+		int buckets = 1 << sizeBits;
+
+		this.keys = new long[buckets * SLOTS];
+		this.entries = new long[buckets * SLOTS];
+		this.bucketMask = buckets - 1;
+	}
+
+	// ------------------------------------------------------
+	//
+	// probe
+	//
+	// PURPOSE: The purpose of this method is to look up the
+	// stored result for the board with the given hash, in
+	// either slot of its bucket.
+	//
+	// PARAMETERS:
+	// - key: the hash of the board.
+	//
+	// RETURNS: the packed entry for the board, to be read
+	// with the get methods of this class, or EMPTY if the
+	// board is not in the table.
+	//
+	// ------------------------------------------------------
+	public long probe(long key)
+	{
+		int slot = bucketOf(key);
+		long entry = EMPTY;
+
+		long first = this.entries[slot];
+		long second = this.entries[slot + 1];
+
+		if (first != EMPTY && (this.keys[slot] ^ first) == key)
+		{
+			entry = first;
+		}
+		else if (second != EMPTY && (this.keys[slot + 1] ^ second) == key)
+		{
+			entry = second;
+		}
+
+		if (entry != EMPTY)
+		{
+			this.hits++;
+		}
+		else
+		{
+			this.misses++;
+
+			if (first != EMPTY || second != EMPTY)
+			{
+				this.collisions++;
+			}
+		}
+
+		return entry;
+	}
+
+	// ------------------------------------------------------
+	//
+	// store
+	//
+	// PURPOSE: The purpose of this method is to save the
+	// result of searching a board. The result goes into the
+	// depth-preferred slot if it is the same board, or if it
+	// was searched at least as deeply as what is already
+	// there. Otherwise it goes into the always-replace slot.
+	//
+	// The entry is packed as: bits 0-31 hold the score,
+	// bits 32-39 hold the depth, bits 40-41 hold the bound,
+	// bits 42-49 hold the best move plus one (0 for none),
+	// and bit 63 marks the entry as valid.
+	//
+	// PARAMETERS:
+	// - key: the hash of the board.
+	// - depth: the depth the board was searched to.
+	// - score: the score found by the search.
+	// - bound: EXACT, LOWER or UPPER.
+	// - move: the best column found, or -1 if there is none.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void store(long key, int depth, int score, int bound, int move)
+	{
+		int slot = bucketOf(key);
+		long entry = VALID | ((long) (move + 1) << 42) | ((long) bound << 40) | ((long) depth << 32)
+				| (score & 0xFFFFFFFFL);
+
+		long first = this.entries[slot];
+
+		if (first == EMPTY || (this.keys[slot] ^ first) == key || depth >= getDepth(first))
+		{
+			this.keys[slot] = key ^ entry;
+			this.entries[slot] = entry;
+		}
+		else
+		{
+			this.keys[slot + 1] = key ^ entry;
+			this.entries[slot + 1] = entry;
+		}
+
+		this.stores++;
+	}
+
+	// ------------------------------------------------------
+	//
+	// clear
+	//
+	// PURPOSE: The purpose of this method is to empty the
+	// table and reset its counters, without reallocating it.
+	//
+	// PARAMETERS: None.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	public void clear()
+	{
+		for (int i = 0; i < this.entries.length; i++)
+		{
+			this.keys[i] = 0L;
+			this.entries[i] = EMPTY;
+		}
+
+		this.hits = 0;
+		this.misses = 0;
+		this.collisions = 0;
+		this.stores = 0;
+	}
+
+	// getters for the fields packed into an entry
+	public static int getScore(long entry)
+	{
+		return (int) entry;
+	}
+
+	public static int getDepth(long entry)
+	{
+		return (int) ((entry >>> 32) & 0xFF);
+	}
+
+	public static int getBound(long entry)
+	{
+		return (int) ((entry >>> 40) & 0x3);
+	}
+
+	public static int getMove(long entry)
+	{
+		return (int) ((entry >>> 42) & 0xFF) - 1;
+	}
+
+	// getters for the table's counters
+	public long getHits()
+	{
+		return this.hits;
+	}
+
+	public long getMisses()
+	{
+		return this.misses;
+	}
+
+	public long getCollisions()
+	{
+		return this.collisions;
+	}
+
+	public long getStores()
+	{
+		return this.stores;
+	}
+
+	// maps a hash to the first slot of its bucket
+	private int bucketOf(long key)
+	{
+		return ((int) (key ^ (key >>> 32)) & this.bucketMask) * SLOTS;
+	}
+}
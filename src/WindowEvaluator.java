@@ -0,0 +1,218 @@
+//------------------------------------------------------
+//
+// CLASS: WindowEvaluator
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to score a board
+//          by its windows, the runs of objective cells
+//          that a line could be made in (see LineTable).
+//          A window holding only one player's tokens is
+//          still open to that player, and is worth the
+//          weight for the number of tokens in it, while a
+//          window holding both players' tokens is worth
+//          nothing to either. Central cells are part of
+//          the most windows, so they are favoured without
+//          being weighted separately.
+//
+//          The score is not worked out from the cells at
+//          each leaf of the search. Instead, the board's
+//          ThreatIndex keeps the count of each player's
+//          tokens in every window and a running total as
+//          tokens are dropped and taken back, so evaluate
+//          only reads it. The evaluator itself holds only
+//          the weights, so one evaluator can be shared by
+//          searches on several threads, each with its own
+//          board.
+//
+//          The weights can be read from a text file, which
+//          holds one weight for each number of tokens from
+//          1 to objective - 1, separated by white space.
+//          Anything from a '#' to the end of a line is a
+//          comment.
+//
+//------------------------------------------------------
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class WindowEvaluator implements BoardEvaluator
+{
+	public static final String DEFAULT_PATH = "./window-weights.txt";
+
+	private static List<String> sharedLines; // the lines of DEFAULT_PATH, or null if there is no such file
+	private static IOException sharedError; // why DEFAULT_PATH could not be read, if it could not
+	private static boolean sharedRead;
+
+	private int[] weights; // the score of a window by the number of one player's tokens in it, from 0 to objective
+
+	// generic constructor, with the default weights for a line of the given length
+	public WindowEvaluator(int objective)
+	{
+		this(defaultWeights(objective));
+	}
+
+	// a constructor taking the weights of windows holding 1 to objective - 1 of a player's tokens
+	public WindowEvaluator(int[] weights)
+	{
+		// an empty window is worth nothing, and a full one is a won board, which the search scores itself
+		this.weights = new int[weights.length + 2];
+		System.arraycopy(weights, 0, this.weights, 1, weights.length);
+	}
+
+	// the default weights, which grow fourfold with each token, so that one more token outweighs a spread of fewer
+	public static int[] defaultWeights(int objective)
+	{
+		int[] weights = new int[Math.max(0, objective - 1)];
+		int weight = 1;
+
+		for (int i = 0; i < weights.length; i++)
+		{
+			weights[i] = weight;
+			weight *= 4;
+		}
+
+		return weights;
+	}
+
+	// ------------------------------------------------------
+	//
+	// load
+	//
+	// PURPOSE: The purpose of this method is to read the
+	// weights for a line of the given length from a file.
+	//
+	// PARAMETERS:
+	// - path: the file to read.
+	// - objective: the number of tokens in a line needed to
+	// win, which must be one more than the number of
+	// weights in the file.
+	//
+	// RETURNS: an evaluator using the file's weights.
+	//
+	// ------------------------------------------------------
+	public static WindowEvaluator load(String path, int objective) throws IOException
+	{
+		return parse(Files.readAllLines(Paths.get(path)), path, objective);
+	}
+
+	// the evaluator for the weights in the given lines of a file, as for load
+	private static WindowEvaluator parse(List<String> lines, String path, int objective) throws IOException
+	{
+		int[] weights = new int[Math.max(0, objective - 1)];
+		int count = 0;
+
+		for (String line : lines)
+		{
+			int comment = line.indexOf('#');
+			String text = ((comment >= 0) ? line.substring(0, comment) : line).trim();
+
+			if (!text.isEmpty())
+			{
+				for (String word : text.split("\\s+"))
+				{
+					if (count == weights.length)
+					{
+						throw new IOException("Too many weights for a line of " + objective + ": " + path);
+					}
+
+					try
+					{
+						weights[count++] = Integer.parseInt(word);
+					}
+					catch (NumberFormatException e)
+					{
+						throw new IOException("Not a weight: \"" + word + "\" in " + path);
+					}
+				}
+			}
+		}
+
+		if (count < weights.length)
+		{
+			throw new IOException("Expected " + weights.length + " weights, but found " + count + ": " + path);
+		}
+
+		return new WindowEvaluator(weights);
+	}
+
+	// ------------------------------------------------------
+	//
+	// forObjective
+	//
+	// PURPOSE: The purpose of this method is to make the
+	// evaluator the AIs play with. The weights are read from
+	// DEFAULT_PATH if there is such a file, and the default
+	// weights are used otherwise. The file is only read the
+	// first time it is asked for, and a file that cannot be
+	// read, or does not hold weights for this objective, is
+	// reported to the caller.
+	//
+	// PARAMETERS:
+	// - objective: the number of tokens in a line needed to
+	// win.
+	//
+	// RETURNS: the evaluator.
+	//
+	// ------------------------------------------------------
+	public static synchronized WindowEvaluator forObjective(int objective) throws IOException
+	{
+		if (!sharedRead)
+		{
+			sharedRead = true;
+
+			try
+			{
+				sharedLines = Files.readAllLines(Paths.get(DEFAULT_PATH));
+			}
+			catch (NoSuchFileException e)
+			{
+				sharedLines = null;
+			}
+			catch (IOException e)
+			{
+				sharedError = e;
+			}
+		}
+
+		if (sharedError != null)
+		{
+			throw new IOException("Could not read the window weights: " + sharedError.getMessage(), sharedError);
+		}
+
+		return (sharedLines == null) ? new WindowEvaluator(objective) : parse(sharedLines, DEFAULT_PATH, objective);
+	}
+
+	// ------------------------------------------------------
+	//
+	// evaluate
+	//
+	// PURPOSE: The purpose of this method is to score the
+	// board from the given token's point of view, by
+	// reading the running score the board keeps for these
+	// weights.
+	//
+	// PARAMETERS:
+	// - board: the board to score, whose objective must
+	// match the weights.
+	// - token: the token whose point of view is used.
+	//
+	// RETURNS: the score of the board.
+	//
+	// ------------------------------------------------------
+	public int evaluate(BoardArray board, Status token)
+	{
+		if (board.getObjective() != this.weights.length - 1)
+		{
+			throw new IllegalArgumentException("The window weights are for a line of " + (this.weights.length - 1)
+					+ ", not " + board.getObjective());
+		}
+
+		int score = board.getWindowScore(this.weights);
+
+		return (token == Status.ONE) ? score : -score;
+	}
+}
@@ -0,0 +1,85 @@
+//------------------------------------------------------
+//
+// CLASS: WorkerAIs
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to hold the AIs
+//          of one SessionManager worker thread, one of
+//          each difficulty, which are lent to the sessions
+//          whose moves the thread plays. The tables the
+//          AIs search with (several megabytes each for
+//          difficulties 3 to 6) are then set aside once
+//          per worker rather than once per session, and a
+//          session keeps only its board and moves.
+//
+//          An AI is made when first needed, and again for
+//          a session whose board is another size. It is
+//          cleared (see GameAI.clear) whenever it plays for
+//          another session than the one it last played
+//          for, so nothing learned in one game is carried
+//          into another. Only the thread that owns an
+//          instance may use it.
+//
+//------------------------------------------------------
+
+public class WorkerAIs
+{
+	private GameAI[] ais; // the AI of each difficulty, or null until one is needed
+	private int[] widths; // the size of board each AI was made for
+	private int[] heights;
+	private int[] objectives;
+	private String[] lastSessions; // the id of the session each AI last played for, or null
+
+	// generic constructor
+	public WorkerAIs()
+	{
+		this.ais = new GameAI[GameLogic.DIFFICULTIES + 1];
+		this.widths = new int[this.ais.length];
+		this.heights = new int[this.ais.length];
+		this.objectives = new int[this.ais.length];
+		this.lastSessions = new String[this.ais.length];
+	}
+
+	// ------------------------------------------------------
+	//
+	// findAI
+	//
+	// PURPOSE: The purpose of this method is to return the
+	// AI to reply to a move on the given session: this
+	// worker's AI of the session's difficulty, made if there
+	// is none for the session's board yet, and cleared if it
+	// last played for another session.
+	//
+	// PARAMETERS:
+	// - session: the session whose move is being played.
+	//
+	// RETURNS: the AI, which searches on the calling thread
+	// only.
+	//
+	// ------------------------------------------------------
+	public GameAI findAI(GameSession session)
+	{
+		int difficulty = session.getDifficulty();
+
+		if (this.ais[difficulty] == null || this.widths[difficulty] != session.getWidth()
+				|| this.heights[difficulty] != session.getHeight()
+				|| this.objectives[difficulty] != session.getObjective())
+		{
+			// the previous AI (if any) is dropped, so a worker never holds more than one AI of each difficulty
+			this.ais[difficulty] = GameLogic.createAI(difficulty, session.getWidth(), session.getHeight(),
+					session.getObjective(), 1);
+			this.widths[difficulty] = session.getWidth();
+			this.heights[difficulty] = session.getHeight();
+			this.objectives[difficulty] = session.getObjective();
+			this.lastSessions[difficulty] = session.getId();
+		}
+		else if (!session.getId().equals(this.lastSessions[difficulty]))
+		{
+			this.ais[difficulty].clear();
+			this.lastSessions[difficulty] = session.getId();
+		}
+
+		return this.ais[difficulty];
+	}
+}
@@ -0,0 +1,280 @@
+//------------------------------------------------------
+//
+// CLASS: BoardArrayTest
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to check that
+//          the bitboards in BoardArray find the same wins
+//          as looking along every line cell by cell, for
+//          the single-word boards and for boards too large
+//          for one long, and that undoing moves leaves the
+//          board as it was. The winning columns found
+//          through a Position, from the threat index its
+//          board keeps, are checked against trying every
+//          move.
+//
+//------------------------------------------------------
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class BoardArrayTest
+{
+	private static final int GAMES = 200; // random games played on each size of board
+
+	@Test
+	public void findsEachDirectionOfLine()
+	{
+		// horizontal along the bottom row
+		assertTrue(play(new BoardArray(), 0, 0, 1, 1, 2, 2, 3).isWin(Status.ONE));
+
+		// vertical in one column
+		assertTrue(play(new BoardArray(), 3, 4, 3, 4, 3, 4, 3).isWin(Status.ONE));
+
+		// rising to the right
+		assertTrue(play(new BoardArray(), 0, 1, 1, 2, 2, 3, 2, 3, 3, 6, 3).isWin(Status.ONE));
+
+		// falling to the right, for the second player
+		assertTrue(play(new BoardArray(), 3, 3, 3, 2, 3, 2, 2, 1, 0, 1, 6, 0, 6, 6, 1, 5, 0, 0).isWin(Status.TWO));
+	}
+
+	@Test
+	public void doesNotWrapBetweenColumns()
+	{
+		BoardArray board = new BoardArray();
+
+		// the top three cells of the first column and the bottom cell of the second are next to each other in bits
+		play(board, 0, 0, 0, 6, 0, 6, 0, 0, 1);
+
+		assertFalse(board.isWin(Status.ONE));
+		assertFalse(board.isWin(Status.TWO));
+	}
+
+	@Test
+	public void matchesCellScanOnUsualBoard()
+	{
+		checkRandomGames(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE);
+	}
+
+	@Test
+	public void matchesCellScanOnSmallBoards()
+	{
+		checkRandomGames(4, 4, 3);
+		checkRandomGames(5, 4, 4);
+	}
+
+	@Test
+	public void matchesCellScanOnMultiWordBoards()
+	{
+		// 10 columns of 8 bits, and 12 columns of 11 bits, do not fit in one long
+		checkRandomGames(10, 7, 4);
+		checkRandomGames(12, 10, 5);
+	}
+
+	@Test
+	public void positionFindsWinsThroughDropsAndUndos()
+	{
+		checkWinningColumns(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE);
+		checkWinningColumns(10, 7, 4);
+	}
+
+	// ------------------------------------------------------
+	//
+	// checkRandomGames
+	//
+	// PURPOSE: The purpose of this method is to play random
+	// games on a board of the given size, checking isWin
+	// against a scan of the cells after every move, then
+	// to undo every move and check that the board is empty
+	// again, with the hash it started with.
+	//
+	// PARAMETERS:
+	// - width: the number of columns on the board.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private static void checkRandomGames(int width, int height, int objective)
+	{
+		Random random = new Random(width * 100 + height * 10 + objective);
+		BoardArray board = new BoardArray(width, height, objective);
+		long emptyHash = board.getHash();
+
+		for (int game = 0; game < GAMES; game++)
+		{
+			Status token = Status.ONE;
+			boolean over = false;
+
+			while (!over)
+			{
+				int col = random.nextInt(width);
+
+				if (board.canPlay(col))
+				{
+					board.dropToken(col, token);
+
+					assertEquals(scanForWin(board, Status.ONE), board.isWin(Status.ONE));
+					assertEquals(scanForWin(board, Status.TWO), board.isWin(Status.TWO));
+
+					over = board.isWin(token) || board.isFull();
+					token = (token == Status.ONE) ? Status.TWO : Status.ONE;
+				}
+			}
+
+			while (board.getMoveCount() > 0)
+			{
+				board.undoToken(board.getLastMove());
+			}
+
+			assertEquals(emptyHash, board.getHash());
+
+			for (int col = 0; col < width; col++)
+			{
+				assertEquals(0, board.getColumnHeight(col));
+			}
+		}
+	}
+
+	// ------------------------------------------------------
+	//
+	// checkWinningColumns
+	//
+	// PURPOSE: The purpose of this method is to play random
+	// games on a board of the given size, read only through
+	// a Position made before the first move, checking after
+	// every drop and undo that the winning column of each
+	// player is the leftmost column where trying the move on
+	// a copy of the board wins.
+	//
+	// PARAMETERS:
+	// - width: the number of columns on the board.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private static void checkWinningColumns(int width, int height, int objective)
+	{
+		Random random = new Random(width * height);
+		BoardArray board = new BoardArray(width, height, objective);
+		BoardArray copy = new BoardArray(width, height, objective);
+		Position position = board.getPosition();
+
+		for (int game = 0; game < GAMES; game++)
+		{
+			boolean over = false;
+
+			while (!over)
+			{
+				int col = random.nextInt(width);
+				Status token = board.getTurn();
+
+				if (board.canPlay(col))
+				{
+					board.dropToken(col, token);
+					checkWinningColumn(position, copy);
+
+					over = board.isWin(token) || board.isFull();
+				}
+			}
+
+			// taking back half the game checks that undo keeps the index too
+			for (int ply = board.getMoveCount() / 2; ply > 0; ply--)
+			{
+				board.undoToken(board.getLastMove());
+				checkWinningColumn(position, copy);
+			}
+
+			while (board.getMoveCount() > 0)
+			{
+				board.undoToken(board.getLastMove());
+			}
+		}
+	}
+
+	// checks each player's winning column from the position against trying every move on the copy
+	private static void checkWinningColumn(Position position, BoardArray copy)
+	{
+		for (Status token : new Status[] { Status.ONE, Status.TWO })
+		{
+			int expected = -1;
+
+			position.copyTo(copy);
+
+			for (int col = 0; col < copy.getWidth() && expected == -1; col++)
+			{
+				if (copy.canPlay(col))
+				{
+					copy.dropToken(col, token);
+
+					if (copy.isWin(token))
+					{
+						expected = col;
+					}
+
+					copy.undoToken(col);
+				}
+			}
+
+			// a player who already has a line wins with any move, so only a line still to be made is compared
+			if (!copy.isWin(token))
+			{
+				assertEquals(expected, position.getWinningColumn(token));
+			}
+		}
+	}
+
+	// checks every cell for a line of the token's objective going right, down, or diagonally down either way
+	private static boolean scanForWin(BoardArray board, Status token)
+	{
+		int[][] steps = { { 0, 1 }, { 1, 0 }, { 1, 1 }, { 1, -1 } };
+		boolean found = false;
+
+		for (int row = 0; row < board.getHeight() && !found; row++)
+		{
+			for (int col = 0; col < board.getWidth() && !found; col++)
+			{
+				for (int[] step : steps)
+				{
+					int length = 0;
+					int r = row;
+					int c = col;
+
+					while (length < board.getObjective() && r >= 0 && r < board.getHeight() && c >= 0
+							&& c < board.getWidth() && board.getCell(r, c) == token)
+					{
+						length++;
+						r += step[0];
+						c += step[1];
+					}
+
+					found = found || length == board.getObjective();
+				}
+			}
+		}
+
+		return found;
+	}
+
+	// drops the given columns in turn, starting with Status.ONE, and returns the board
+	static BoardArray play(BoardArray board, int... cols)
+	{
+		for (int col : cols)
+		{
+			board.dropToken(col, (board.getMoveCount() % 2 == 0) ? Status.ONE : Status.TWO);
+		}
+
+		return board;
+	}
+}
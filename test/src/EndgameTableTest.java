@@ -0,0 +1,173 @@
+//------------------------------------------------------
+//
+// CLASS: EndgameTableTest
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to check that
+//          the minimal perfect hash of an EndgameTable
+//          finds every board written to it, with its
+//          score, and no board that was not, for tables of
+//          every size from empty upwards. A whole table is
+//          then built by the EndgameTableBuilder for a
+//          small board and checked against a plain search.
+//
+//------------------------------------------------------
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EndgameTableTest
+{
+	private static final int BOARDS = 200; // random boards checked against the built table
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void findsEveryWrittenBoard() throws IOException
+	{
+		int[] counts = { 0, 1, 2, 3, 17, 1000, 100000 };
+
+		for (int count : counts)
+		{
+			checkRoundTrip(count);
+		}
+	}
+
+	@Test
+	public void refusesUnsortedKeys()
+	{
+		String path = this.folder.resolve("unsorted.bin").toString();
+		long[] keys = { 5, 3 };
+		byte[] scores = { 1, 2 };
+
+		assertThrows(IllegalArgumentException.class, () -> EndgameTable.write(path, 7, 6, 4, 2, keys, scores, 2));
+	}
+
+	@Test
+	public void builtTableMatchesSearch() throws IOException
+	{
+		String path = this.folder.resolve("small.bin").toString();
+		int width = 4;
+		int height = 4;
+		int objective = 3;
+
+		// every board fits, from the empty board on
+		new EndgameTableBuilder(width, height, objective, width * height).build(path, "");
+
+		EndgameTable table = new EndgameTable(path);
+		BoardArray board = new BoardArray(width, height, objective);
+
+		// the first player wins with their fifth token
+		assertEquals(4, table.probe(board));
+
+		Random random = new Random(2150);
+
+		for (int i = 0; i < BOARDS; i++)
+		{
+			board = new BoardArray(width, height, objective);
+
+			// a few random moves that do not end the game, so the search below is quick
+			int moves = 4 + random.nextInt(8);
+			int tries = 0;
+
+			while (board.getMoveCount() < moves && tries++ < 1000)
+			{
+				int col = random.nextInt(width);
+				Status token = board.getTurn();
+
+				if (board.canPlay(col))
+				{
+					board.dropToken(col, token);
+
+					if (board.isWin(token) || board.isFull())
+					{
+						board.undoToken(col);
+					}
+				}
+			}
+
+			assertEquals(PerfectSolverTest.searchScore(board), table.probe(board),
+					"moves " + PerfectSolverTest.describe(board));
+		}
+
+		// a board of another size is not looked up
+		assertEquals(EndgameTable.NOT_FOUND, table.probe(new BoardArray()));
+	}
+
+	// ------------------------------------------------------
+	//
+	// checkRoundTrip
+	//
+	// PURPOSE: The purpose of this method is to write a
+	// table of the given number of random keys and scores,
+	// read it back, and look up every key, as well as keys
+	// that were not written.
+	//
+	// PARAMETERS:
+	// - count: the number of boards in the table.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void checkRoundTrip(int count) throws IOException
+	{
+		Random random = new Random(count);
+		HashSet<Long> written = new HashSet<Long>();
+		long[] keys = new long[count];
+		byte[] scores = new byte[count];
+
+		while (written.size() < count)
+		{
+			written.add(random.nextLong() >>> 8); // keys are at most 56 bits, as the builder's are
+		}
+
+		int next = 0;
+
+		for (long key : written)
+		{
+			keys[next++] = key;
+		}
+
+		Arrays.sort(keys);
+
+		for (int i = 0; i < count; i++)
+		{
+			scores[i] = (byte) (random.nextInt(43) - 21);
+		}
+
+		String path = this.folder.resolve("table" + count + ".bin").toString();
+
+		EndgameTable.write(path, 7, 6, 4, 10, keys, scores, count);
+
+		EndgameTable table = new EndgameTable(path);
+
+		assertEquals(count, table.size());
+		assertEquals(10, table.getMaxEmpty());
+
+		for (int i = 0; i < count; i++)
+		{
+			assertEquals(scores[i], table.lookup(keys[i]));
+		}
+
+		for (int i = 0; i < 1000; i++)
+		{
+			long key = random.nextLong() >>> 8;
+
+			if (!written.contains(key))
+			{
+				assertEquals(EndgameTable.NOT_FOUND, table.lookup(key));
+			}
+		}
+	}
+}
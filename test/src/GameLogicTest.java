@@ -0,0 +1,253 @@
+//------------------------------------------------------
+//
+// CLASS: GameLogicTest
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to check the
+//          move stack of GameLogic: that undo takes back
+//          the player's move with the AI's reply, that redo
+//          plays them again without asking the AI, and
+//          that a finished game is recorded once however
+//          often it is undone and redone. The AI's moves
+//          are played by a ScriptedPlayer, so every game is
+//          known in advance.
+//
+//          Moves made asynchronously are checked too: that
+//          the player waits for the AI's reply, and that a
+//          reply that fails or is cancelled takes the
+//          player's move back.
+//
+//------------------------------------------------------
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GameLogicTest
+{
+	// the first player wins up the first column, while the AI plays in the second
+	private static final int[] WIN = { 0, 1, 0, 1, 0, 1, 0 };
+
+	private static final long TIMEOUT = 10; // seconds to wait for an asynchronous move
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void undoesAndRedoesWholeTurns()
+	{
+		HeadlessDisplay display = new HeadlessDisplay(0);
+		GameLogic logic = newGame(display, WIN);
+
+		assertFalse(logic.undo());
+		assertFalse(logic.redo());
+
+		assertTrue(logic.addPiece(0));
+		String afterOne = Arrays.deepToString(display.getBoard());
+		assertTrue(logic.addPiece(0));
+		String afterTwo = Arrays.deepToString(display.getBoard());
+
+		assertEquals(4, logic.getMoveCount());
+
+		// each undo takes back the AI's reply and the player's move before it
+		assertTrue(logic.undo());
+		assertEquals(2, logic.getMoveCount());
+		assertEquals(afterOne, Arrays.deepToString(display.getBoard()));
+
+		assertTrue(logic.undo());
+		assertEquals(0, logic.getMoveCount());
+		assertFalse(logic.undo());
+
+		// redo plays both moves again, without the AI being asked
+		assertTrue(logic.redo());
+		assertEquals(afterOne, Arrays.deepToString(display.getBoard()));
+		assertTrue(logic.redo());
+		assertEquals(afterTwo, Arrays.deepToString(display.getBoard()));
+		assertFalse(logic.redo());
+	}
+
+	@Test
+	public void newMoveForgetsRedo()
+	{
+		HeadlessDisplay display = new HeadlessDisplay(0);
+		GameLogic logic = newGame(display, new int[] { 0, 1, 2, 3 });
+
+		assertTrue(logic.addPiece(0));
+		assertTrue(logic.undo());
+
+		// the scripted AI plays by move number, so it replies the same way to a different move
+		assertTrue(logic.addPiece(2));
+		assertFalse(logic.redo());
+		assertEquals(2, logic.getMoveCount());
+	}
+
+	@Test
+	public void recordsFinishedGameOnce() throws IOException
+	{
+		HeadlessDisplay display = new HeadlessDisplay(0);
+		GameLogic logic = newGame(display, WIN);
+
+		try (GameRecordLog log = new GameRecordLog(this.folder.resolve("games.log").toString(), 7, 6, 4))
+		{
+			logic.setRecordLog(log);
+
+			for (int i = 0; i < WIN.length; i += 2)
+			{
+				assertTrue(logic.addPiece(WIN[i]));
+			}
+
+			assertEquals(Status.ONE, display.getWinner());
+			assertEquals(1, log.getGames());
+
+			// undoing the winning move and playing it again by redo ends the game again, but records nothing new
+			for (int i = 0; i < 2; i++)
+			{
+				display.clear();
+				assertTrue(logic.undo());
+				assertNull(display.getWinner());
+				assertTrue(logic.redo());
+				assertEquals(Status.ONE, display.getWinner());
+			}
+
+			assertEquals(WIN.length, logic.getMoveCount());
+			assertEquals(1, log.getGames());
+		}
+	}
+
+	@Test
+	public void asyncMoveWaitsForReply() throws Exception
+	{
+		CountDownLatch reply = new CountDownLatch(1);
+		GameLogic logic = new GameLogic(new HeadlessDisplay(0));
+
+		logic.reset(new GameAI()
+		{
+			public int makeMove(Position position)
+			{
+				awaitQuietly(reply);
+				return 3;
+			}
+		});
+
+		CompletableFuture<Boolean> move = logic.addPieceAsync(3);
+
+		// the player's token is down, but nothing else can be done until the AI replies
+		assertFalse(move.isDone());
+		assertEquals(1, logic.getMoveCount());
+		assertThrows(ExecutionException.class, () -> logic.addPieceAsync(2).get(TIMEOUT, TimeUnit.SECONDS));
+		assertThrows(IllegalStateException.class, () -> logic.addPiece(2));
+		assertEquals(1, logic.getMoveCount());
+		assertFalse(logic.undo());
+
+		reply.countDown();
+
+		assertTrue(move.get(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals(2, logic.getMoveCount());
+	}
+
+	@Test
+	public void resetCancelsPendingMove() throws Exception
+	{
+		CountDownLatch never = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		GameLogic logic = new GameLogic(new HeadlessDisplay(1));
+
+		logic.reset(new GameAI()
+		{
+			public int makeMove(Position position)
+			{
+				started.countDown();
+				awaitQuietly(never);
+				return 0;
+			}
+		});
+
+		CompletableFuture<Boolean> move = logic.addPieceAsync(3);
+
+		assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+
+		logic.reset();
+
+		assertTrue(move.isCancelled());
+		assertEquals(0, logic.getMoveCount());
+
+		// the new game's AI plays as usual
+		assertTrue(logic.addPieceAsync(3).get(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals(2, logic.getMoveCount());
+	}
+
+	@Test
+	public void failedReplyTakesBackMove() throws Exception
+	{
+		GameLogic logic = new GameLogic(new HeadlessDisplay(0));
+
+		logic.reset(new GameAI()
+		{
+			public int makeMove(Position position)
+			{
+				throw new IllegalStateException("no move");
+			}
+		});
+
+		ExecutionException thrown = assertThrows(ExecutionException.class,
+				() -> logic.addPieceAsync(3).get(TIMEOUT, TimeUnit.SECONDS));
+
+		assertInstanceOf(IllegalStateException.class, thrown.getCause());
+		assertEquals(0, logic.getMoveCount());
+
+		// the same for the move made synchronously
+		assertThrows(IllegalStateException.class, () -> logic.addPiece(3));
+		assertEquals(0, logic.getMoveCount());
+	}
+
+	@Test
+	public void unplayableReplyTakesBackMove() throws Exception
+	{
+		GameLogic logic = new GameLogic(new HeadlessDisplay(0));
+
+		logic.reset(new ScriptedPlayer(new int[] { 3, 7 }, 2));
+
+		assertThrows(ExecutionException.class, () -> logic.addPieceAsync(3).get(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals(0, logic.getMoveCount());
+		assertThrows(IllegalStateException.class, () -> logic.addPiece(3));
+		assertEquals(0, logic.getMoveCount());
+	}
+
+	// waits for the latch, returning early if the AI's thread is interrupted, as a cancelled move's is
+	private static void awaitQuietly(CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// a game on the usual board against an AI playing the odd moves of the given game
+	static GameLogic newGame(HeadlessDisplay display, int[] moves)
+	{
+		GameLogic logic = new GameLogic(display);
+
+		logic.reset(new ScriptedPlayer(moves, moves.length));
+
+		return logic;
+	}
+}
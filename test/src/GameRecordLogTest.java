@@ -0,0 +1,176 @@
+//------------------------------------------------------
+//
+// CLASS: GameRecordLogTest
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to check that
+//          games written to a GameRecordLog are read back
+//          and played through GameLogic by a ReplayEngine
+//          exactly as they were played, that a game whose
+//          record is wrong is caught, and that the varints
+//          in the file survive the round trip.
+//
+//------------------------------------------------------
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GameRecordLogTest
+{
+	private static final int GAMES = 500;
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void readsBackVarints()
+	{
+		int[] values = { 0, 1, 127, 128, 16383, 16384, 1 << 21, Integer.MAX_VALUE };
+		byte[] buffer = new byte[5 * values.length];
+		int length = 0;
+
+		for (int value : values)
+		{
+			length = GameRecordLog.writeVarint(buffer, length, value);
+		}
+
+		ByteBuffer in = ByteBuffer.wrap(buffer, 0, length);
+
+		for (int value : values)
+		{
+			assertEquals(value, GameRecordLog.readVarint(in));
+		}
+
+		assertEquals(0, in.remaining());
+	}
+
+	@Test
+	public void replaysRecordedGames() throws IOException
+	{
+		checkReplay(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE);
+	}
+
+	@Test
+	public void replaysGamesOnOtherBoards() throws IOException
+	{
+		// an odd number of moves fills the last byte by half, and 16 columns is the widest a move can hold
+		checkReplay(5, 5, 4);
+		checkReplay(GameRecordLog.MAX_WIDTH, 3, 3);
+	}
+
+	@Test
+	public void catchesWrongRecord() throws IOException
+	{
+		String path = this.folder.resolve("wrong.log").toString();
+		int[] moves = { 0, 1, 0, 1, 0, 1, 0 };
+
+		try (GameRecordLog log = new GameRecordLog(path, 7, 6, 4))
+		{
+			log.append(moves, moves.length, Status.ONE);
+			log.append(moves, moves.length, Status.TWO); // the wrong winner
+			log.append(moves, moves.length - 2, Status.ONE); // ends before the win
+		}
+
+		ReplayEngine replay = new ReplayEngine(path);
+
+		replay.run();
+
+		assertEquals(3, replay.getGames());
+		assertEquals(2, replay.getMismatches());
+	}
+
+	@Test
+	public void appendsToExistingLog() throws IOException
+	{
+		String path = this.folder.resolve("append.log").toString();
+		int[] moves = { 3, 3, 3, 3, 3, 3 };
+
+		try (GameRecordLog log = new GameRecordLog(path, 7, 6, 4))
+		{
+			log.append(moves, moves.length, Status.NEITHER);
+		}
+
+		try (GameRecordLog log = new GameRecordLog(path, 7, 6, 4))
+		{
+			log.append(moves, moves.length, Status.NEITHER);
+		}
+
+		ReplayEngine replay = new ReplayEngine(path);
+
+		replay.run();
+
+		assertEquals(2, replay.getGames());
+		assertEquals(2 * moves.length, replay.getMoves());
+		assertEquals(2, replay.getMismatches()); // a draw before the board is full does not match
+		assertThrows(IOException.class, () -> new GameRecordLog(path, 8, 6, 4));
+	}
+
+	// ------------------------------------------------------
+	//
+	// checkReplay
+	//
+	// PURPOSE: The purpose of this method is to record
+	// random games on a board of the given size, each
+	// played to its end, then replay the log and check that
+	// every game matches its record.
+	//
+	// PARAMETERS:
+	// - width: the number of columns on the board.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private void checkReplay(int width, int height, int objective) throws IOException
+	{
+		String path = this.folder.resolve(width + "x" + height + ".log").toString();
+		Random random = new Random(width * height);
+		int[] moves = new int[width * height];
+		long total = 0;
+
+		try (GameRecordLog log = new GameRecordLog(path, width, height, objective))
+		{
+			for (int game = 0; game < GAMES; game++)
+			{
+				BoardArray board = new BoardArray(width, height, objective);
+				Status winner = null;
+
+				while (winner == null)
+				{
+					int col = random.nextInt(width);
+					Status token = board.getTurn();
+
+					if (board.canPlay(col))
+					{
+						moves[board.getMoveCount()] = col;
+						board.dropToken(col, token);
+
+						winner = board.isWin(token) ? token : board.isFull() ? Status.NEITHER : null;
+					}
+				}
+
+				log.append(moves, board.getMoveCount(), winner);
+				total += board.getMoveCount();
+			}
+		}
+
+		ReplayEngine replay = new ReplayEngine(path);
+
+		replay.run();
+
+		assertEquals(GAMES, replay.getGames());
+		assertEquals(total, replay.getMoves());
+		assertEquals(0, replay.getMismatches());
+	}
+}
@@ -0,0 +1,139 @@
+//------------------------------------------------------
+//
+// CLASS: MirrorTest
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to check that a
+//          board and its mirror image (left to right) share
+//          one canonical hash and position key, kept up to
+//          date through every drop and undo, and that a
+//          move stored under the canonical key comes back
+//          as the right column for either board.
+//
+//------------------------------------------------------
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class MirrorTest
+{
+	private static final int GAMES = 200;
+
+	@Test
+	public void sharesCanonicalKeysThroughGames()
+	{
+		checkRandomGames(BoardArray.DEFAULT_WIDTH, BoardArray.DEFAULT_HEIGHT, BoardArray.DEFAULT_OBJECTIVE, true);
+		checkRandomGames(6, 5, 4, true);
+
+		// position keys need one long, but the hashes are kept for larger boards too
+		checkRandomGames(10, 7, 4, false);
+	}
+
+	@Test
+	public void symmetricBoardIsItsOwnMirror()
+	{
+		BoardArray board = BoardArrayTest.play(new BoardArray(), 3, 3, 2, 4, 4, 2);
+
+		assertEquals(board.getHash(), board.getCanonicalHash());
+		assertFalse(board.isMirrored());
+		assertEquals(1, board.canonicalMove(1));
+	}
+
+	@Test
+	public void mapsStoredMoveToEitherBoard()
+	{
+		BoardArray board = BoardArrayTest.play(new BoardArray(), 0, 3, 1);
+		BoardArray mirror = BoardArrayTest.play(new BoardArray(), 6, 3, 5);
+		TranspositionTable table = new TranspositionTable(4);
+
+		assertNotEquals(board.isMirrored(), mirror.isMirrored());
+		assertEquals(-1, board.canonicalMove(-1));
+
+		// the best move on the board is the third column, so it is the fifth on the mirror image
+		table.store(board.getCanonicalHash(), 1, 0, TranspositionTable.EXACT, board.canonicalMove(2));
+
+		long entry = table.probe(mirror.getCanonicalHash());
+
+		assertEquals(4, mirror.canonicalMove(TranspositionTable.getMove(entry)));
+	}
+
+	// ------------------------------------------------------
+	//
+	// checkRandomGames
+	//
+	// PURPOSE: The purpose of this method is to play random
+	// games on a board and, move for move, on its mirror
+	// image, checking after every drop and undo that the two
+	// share their canonical keys, that the canonical key is
+	// the smaller of the two, and that exactly one of them
+	// is mirrored unless the board is symmetric.
+	//
+	// PARAMETERS:
+	// - width: the number of columns on the board.
+	// - height: the number of rows on the board.
+	// - objective: the number of tokens in a line needed to
+	// win.
+	// - keys: true to check the position keys as well as
+	// the hashes.
+	//
+	// RETURNS: None.
+	//
+	// ------------------------------------------------------
+	private static void checkRandomGames(int width, int height, int objective, boolean keys)
+	{
+		Random random = new Random(width * height + objective);
+		BoardArray board = new BoardArray(width, height, objective);
+		BoardArray mirror = new BoardArray(width, height, objective);
+
+		for (int game = 0; game < GAMES; game++)
+		{
+			boolean over = false;
+
+			while (!over)
+			{
+				int col = random.nextInt(width);
+				Status token = board.getTurn();
+
+				if (board.canPlay(col))
+				{
+					board.dropToken(col, token);
+					mirror.dropToken(width - 1 - col, token);
+					checkPair(board, mirror, keys);
+
+					over = board.isWin(token) || board.isFull();
+				}
+			}
+
+			while (board.getMoveCount() > 0)
+			{
+				board.undoToken(board.getLastMove());
+				mirror.undoToken(mirror.getLastMove());
+				checkPair(board, mirror, keys);
+			}
+		}
+	}
+
+	private static void checkPair(BoardArray board, BoardArray mirror, boolean keys)
+	{
+		assertEquals(board.getCanonicalHash(), mirror.getCanonicalHash());
+		assertEquals(Math.min(board.getHash(), mirror.getHash()), board.getCanonicalHash());
+
+		if (board.getHash() != mirror.getHash())
+		{
+			assertTrue(board.isMirrored() != mirror.isMirrored());
+		}
+
+		if (keys)
+		{
+			assertEquals(board.getCanonicalPositionKey(), mirror.getCanonicalPositionKey());
+			assertEquals(Math.min(board.getPositionKey(), mirror.getPositionKey()), board.getCanonicalPositionKey());
+		}
+	}
+}
@@ -0,0 +1,261 @@
+//------------------------------------------------------
+//
+// CLASS: PerfectSolverTest
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to check the
+//          PerfectSolver against boards whose scores are
+//          known: a win on the next move, and boards late
+//          enough in the game to be searched in full by a
+//          plain alpha-beta search here. It also checks
+//          that an opening book built by the
+//          OpeningBookBuilder reads back the solver's
+//          scores, and that OpeningBook.forPath shares one
+//          book per file.
+//
+//------------------------------------------------------
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PerfectSolverTest
+{
+	private static final int POSITIONS = 20; // random late boards solved both ways
+	private static final int LATE_MOVES = 30; // tokens on those boards, leaving 12 empty cells
+
+	private static PerfectSolver solver;
+
+	@TempDir
+	Path folder;
+
+	@BeforeAll
+	public static void makeSolver()
+	{
+		solver = new PerfectSolver(); // its table is large, so one is shared by every test
+	}
+
+	@Test
+	public void scoresWinOnNextMove()
+	{
+		// the first player has three in the bottom row, and wins with their fourth token
+		BoardArray board = BoardArrayTest.play(new BoardArray(), 0, 0, 1, 1, 2, 2);
+
+		solver.clear();
+		assertEquals((42 + 1 - 6) / 2, solver.solve(board));
+	}
+
+	@Test
+	public void matchesFullSearchOfLateBoards()
+	{
+		Random random = new Random(2150);
+
+		for (int i = 0; i < POSITIONS; i++)
+		{
+			BoardArray board = randomBoard(random, LATE_MOVES);
+
+			solver.clear();
+			assertEquals(searchScore(board), solver.solve(board), "moves " + describe(board));
+		}
+	}
+
+	@Test
+	public void scoresMirrorImagesAlike()
+	{
+		Random random = new Random(6852347);
+
+		for (int i = 0; i < POSITIONS; i++)
+		{
+			BoardArray board = randomBoard(random, LATE_MOVES - 4);
+			BoardArray mirror = new BoardArray();
+
+			for (int ply = 0; ply < board.getMoveCount(); ply++)
+			{
+				BoardArrayTest.play(mirror, board.getWidth() - 1 - board.getMove(ply));
+			}
+
+			assertEquals(board.getCanonicalPositionKey(), mirror.getCanonicalPositionKey());
+
+			solver.clear();
+			int score = solver.solve(board);
+
+			solver.clear();
+			assertEquals(score, solver.solve(mirror), "moves " + describe(board));
+		}
+	}
+
+	@Test
+	public void bookReadsBackSolvedScores() throws IOException
+	{
+		BoardArray opening = randomBoard(new Random(42), LATE_MOVES - 2);
+		String path = this.folder.resolve("book.bin").toString();
+
+		new OpeningBookBuilder(LATE_MOVES).build(path, describe(opening));
+
+		OpeningBook book = OpeningBook.forPath(path);
+
+		assertSame(book, OpeningBook.forPath(path));
+
+		solver.clear();
+		assertEquals(solver.solve(opening), book.lookup(opening.getCanonicalPositionKey()));
+
+		// every reply to the opening is in the book too, unless it ends the game
+		Status token = opening.getTurn();
+
+		for (int col = 0; col < opening.getWidth(); col++)
+		{
+			if (opening.canPlay(col))
+			{
+				opening.dropToken(col, token);
+
+				if (!opening.isWin(token))
+				{
+					solver.clear();
+					assertEquals(solver.solve(opening), book.lookup(opening.getCanonicalPositionKey()));
+				}
+
+				opening.undoToken(col);
+			}
+		}
+
+		// a board before the opening is not
+		opening.undoToken(opening.getLastMove());
+		assertEquals(OpeningBook.NOT_FOUND, book.lookup(opening.getCanonicalPositionKey()));
+	}
+
+	@Test
+	public void reportsMissingBook()
+	{
+		String path = this.folder.resolve("missing.bin").toString();
+
+		assertThrows(NoSuchFileException.class, () -> OpeningBook.forPath(path));
+	}
+
+	// ------------------------------------------------------
+	//
+	// randomBoard
+	//
+	// PURPOSE: The purpose of this method is to play random
+	// moves on the usual board until it holds the given
+	// number of tokens, never playing a move that ends the
+	// game, so the board can still be solved.
+	//
+	// PARAMETERS:
+	// - random: the source of the moves.
+	// - moves: the number of tokens to play.
+	//
+	// RETURNS: the board.
+	//
+	// ------------------------------------------------------
+	static BoardArray randomBoard(Random random, int moves)
+	{
+		BoardArray board = new BoardArray();
+		int tries = 0;
+
+		while (board.getMoveCount() < moves)
+		{
+			int col = random.nextInt(board.getWidth());
+			Status token = board.getTurn();
+
+			if (board.canPlay(col))
+			{
+				board.dropToken(col, token);
+
+				if (board.isWin(token))
+				{
+					board.undoToken(col);
+				}
+			}
+
+			// start again if the board has reached a point where every move wins
+			if (++tries > 1000)
+			{
+				board = new BoardArray();
+				tries = 0;
+			}
+		}
+
+		return board;
+	}
+
+	// the moves of the board as an opening for OpeningBookBuilder, with columns from 1
+	static String describe(BoardArray board)
+	{
+		StringBuilder text = new StringBuilder();
+
+		for (int ply = 0; ply < board.getMoveCount(); ply++)
+		{
+			text.append((char) ('1' + board.getMove(ply)));
+		}
+
+		return text.toString();
+	}
+
+	// ------------------------------------------------------
+	//
+	// searchScore
+	//
+	// PURPOSE: The purpose of this method is to score the
+	// board as PerfectSolver does, with a plain alpha-beta
+	// search to the end of the game and nothing else, so
+	// that the solver's tables and narrowed windows are
+	// checked against the simplest search there is.
+	//
+	// PARAMETERS:
+	// - board: the board to score, which is left unchanged.
+	//
+	// RETURNS: the score of the board for the player to
+	// move.
+	//
+	// ------------------------------------------------------
+	static int searchScore(BoardArray board)
+	{
+		return alphaBeta(board, -board.getWidth() * board.getHeight(), board.getWidth() * board.getHeight());
+	}
+
+	private static int alphaBeta(BoardArray board, int alpha, int beta)
+	{
+		int cells = board.getWidth() * board.getHeight();
+		int moves = board.getMoveCount();
+		Status token = board.getTurn();
+		int best = -cells;
+
+		for (int col = 0; col < board.getWidth() && best < beta; col++)
+		{
+			if (board.canPlay(col))
+			{
+				int score;
+
+				board.dropToken(col, token);
+
+				if (board.isWin(token))
+				{
+					score = (cells + 1 - moves) / 2;
+				}
+				else if (board.isFull())
+				{
+					score = 0;
+				}
+				else
+				{
+					score = -alphaBeta(board, -beta, -Math.max(alpha, best));
+				}
+
+				board.undoToken(col);
+				best = Math.max(best, score);
+			}
+		}
+
+		return best;
+	}
+}
@@ -0,0 +1,89 @@
+//------------------------------------------------------
+//
+// CLASS: SessionManagerTest
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to check that a
+//          SessionManager refuses boards too large to host
+//          before anything is made from them, and that the
+//          AIs of a worker thread are lent to every session
+//          of the same difficulty and board, rather than
+//          each session keeping its own.
+//
+//------------------------------------------------------
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class SessionManagerTest
+{
+	private static final long TIMEOUT = 10; // seconds to wait for a move
+
+	@Test
+	public void refusesBoardsTooLarge()
+	{
+		SessionManager manager = new SessionManager(1, 4, 60000, 10);
+
+		try
+		{
+			assertThrows(IllegalArgumentException.class, () -> manager.createSession(1, 100000, 100000, 4));
+			assertThrows(IllegalArgumentException.class,
+					() -> manager.createSession(1, SessionManager.MAX_WIDTH + 1, 1, 1));
+			assertThrows(IllegalArgumentException.class, () -> manager.createSession(1, 16, 17, 4));
+			assertThrows(IllegalArgumentException.class, () -> manager.createSession(1, 7, 6, 8));
+			assertThrows(IllegalArgumentException.class, () -> manager.createSession(1, 7, 0, 4));
+
+			// the largest board allowed is still hosted, and a refused board takes no slot
+			manager.createSession(1, 16, 16, 4);
+			assertEquals(1, manager.getSessionCount());
+		}
+		finally
+		{
+			manager.shutdown();
+		}
+	}
+
+	@Test
+	public void lendsWorkerAIsToSessions()
+	{
+		WorkerAIs ais = new WorkerAIs();
+		GameSession first = new GameSession("a", 2, 7, 6, 4);
+		GameSession second = new GameSession("b", 2, 7, 6, 4);
+		GameSession smaller = new GameSession("c", 2, 6, 5, 4);
+
+		GameAI ai = ais.findAI(first);
+
+		assertSame(ai, ais.findAI(second));
+		assertNotSame(ai, ais.findAI(smaller));
+		assertNotSame(ais.findAI(first), ais.findAI(new GameSession("d", 3, 7, 6, 4)));
+	}
+
+	@Test
+	public void playsMovesWithWorkerAIs() throws Exception
+	{
+		SessionManager manager = new SessionManager(1, 4, 60000, 10);
+
+		try
+		{
+			String first = manager.createSession(1, 7, 6, 4);
+			String second = manager.createSession(2, 7, 6, 4);
+
+			assertTrue(manager.addPiece(first, 3).get(TIMEOUT, TimeUnit.SECONDS));
+			assertTrue(manager.addPiece(second, 3).get(TIMEOUT, TimeUnit.SECONDS));
+			assertEquals(1, manager.getSession(first).getMoves());
+			assertEquals(1, manager.getSession(second).getMoves());
+		}
+		finally
+		{
+			manager.shutdown();
+		}
+	}
+}
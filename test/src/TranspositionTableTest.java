@@ -0,0 +1,119 @@
+//------------------------------------------------------
+//
+// CLASS: TranspositionTableTest
+//
+// Author: William Coombs, 6852347
+//
+// REMARKS: The purpose of this class is to check that a
+//          TranspositionTable gives back every field of a
+//          stored result as it was packed, keeps the
+//          deepest result in a bucket, and that the
+//          Zobrist hashes it is keyed by are the same for
+//          a board however its moves were ordered.
+//
+//------------------------------------------------------
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTest
+{
+	private static final int SIZE_BITS = 4;
+
+	// keys in the same bucket, since they only differ above the bits the bucket is found from
+	private static final long KEY_A = 5L;
+	private static final long KEY_B = 5L | (1L << 40);
+	private static final long KEY_C = 5L | (1L << 41);
+
+	@Test
+	public void unpacksEveryStoredField()
+	{
+		int[] scores = { Integer.MIN_VALUE + 1, -21, -1, 0, 1, 21, Integer.MAX_VALUE };
+		int[] depths = { 0, 1, 42, 255 };
+		int[] bounds = { TranspositionTable.EXACT, TranspositionTable.LOWER, TranspositionTable.UPPER };
+		int[] moves = { -1, 0, 6, 15 };
+		TranspositionTable table = new TranspositionTable(SIZE_BITS);
+
+		for (int score : scores)
+		{
+			for (int depth : depths)
+			{
+				for (int bound : bounds)
+				{
+					for (int move : moves)
+					{
+						table.store(KEY_A, depth, score, bound, move);
+
+						long entry = table.probe(KEY_A);
+
+						assertNotEquals(TranspositionTable.EMPTY, entry);
+						assertEquals(score, TranspositionTable.getScore(entry));
+						assertEquals(depth, TranspositionTable.getDepth(entry));
+						assertEquals(bound, TranspositionTable.getBound(entry));
+						assertEquals(move, TranspositionTable.getMove(entry));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void missesBoardsNotStored()
+	{
+		TranspositionTable table = new TranspositionTable(SIZE_BITS);
+
+		assertEquals(TranspositionTable.EMPTY, table.probe(0L));
+		assertEquals(TranspositionTable.EMPTY, table.probe(KEY_A));
+
+		table.store(KEY_A, 3, 7, TranspositionTable.EXACT, 2);
+
+		assertEquals(TranspositionTable.EMPTY, table.probe(KEY_B));
+		assertEquals(1, table.getCollisions());
+
+		table.clear();
+
+		assertEquals(TranspositionTable.EMPTY, table.probe(KEY_A));
+	}
+
+	@Test
+	public void keepsDeepestResultInBucket()
+	{
+		TranspositionTable table = new TranspositionTable(SIZE_BITS);
+
+		table.store(KEY_A, 10, 1, TranspositionTable.EXACT, 3);
+		table.store(KEY_B, 2, 2, TranspositionTable.LOWER, 4);
+
+		assertEquals(10, TranspositionTable.getDepth(table.probe(KEY_A)));
+		assertEquals(2, TranspositionTable.getDepth(table.probe(KEY_B)));
+
+		// a shallower result for a third board replaces the newest one, not the deepest
+		table.store(KEY_C, 3, 3, TranspositionTable.UPPER, 5);
+
+		assertEquals(10, TranspositionTable.getDepth(table.probe(KEY_A)));
+		assertEquals(TranspositionTable.EMPTY, table.probe(KEY_B));
+		assertEquals(3, TranspositionTable.getDepth(table.probe(KEY_C)));
+
+		// the same board searched less deeply still replaces its own result
+		table.store(KEY_A, 1, -1, TranspositionTable.EXACT, 0);
+
+		assertEquals(-1, TranspositionTable.getScore(table.probe(KEY_A)));
+	}
+
+	@Test
+	public void hashesTranspositionsAlike()
+	{
+		BoardArray first = BoardArrayTest.play(new BoardArray(), 3, 2, 4, 5);
+		BoardArray second = BoardArrayTest.play(new BoardArray(), 4, 5, 3, 2);
+
+		assertEquals(first.getHash(), second.getHash());
+		assertEquals(first.getPositionKey(), second.getPositionKey());
+
+		// the same cells with the tokens swapped are a different board
+		BoardArray swapped = BoardArrayTest.play(new BoardArray(), 2, 3, 5, 4);
+
+		assertNotEquals(first.getHash(), swapped.getHash());
+		assertNotEquals(first.getPositionKey(), swapped.getPositionKey());
+	}
+}